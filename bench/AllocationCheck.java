@@ -0,0 +1,47 @@
+import java.lang.management.ManagementFactory;
+
+//Measures heap allocated by the simulation per steady-state tick, using the JVM's per-thread allocation counter.
+//Exits with status 1 if the collision stage allocates anything.
+//Usage: java -cp out:bench-out AllocationCheck [ticks]
+public class AllocationCheck {
+
+	public static void main(String[] args) {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		//Warm up until the JIT has compiled the hot paths and the buffers have grown.
+		//The counter itself allocates a little on first use, so take the best of a few rounds.
+		Bot bot = new Bot(0, 40, 12);
+		Simulation simulation = steadyState(7, bot);
+		long collide = Long.MAX_VALUE;
+		for(int round = 0; round < 5; round++) {
+			long before = threads.getThreadAllocatedBytes(thread);
+			for(int i = 0; i < ticks; i++) simulation.checkCollisions();
+			collide = Math.min(collide, threads.getThreadAllocatedBytes(thread) - before);
+		}
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		int done = 0;
+		while(done < ticks && !simulation.isOver()) {
+			bot.act(simulation);
+			simulation.tick();
+			done++;
+		}
+		long tick = threads.getThreadAllocatedBytes(thread) - before;
+
+		System.out.println("collision bytes/tick: " + String.format("%.3f", (double) collide / ticks));
+		System.out.println("full tick bytes/tick: " + String.format("%.3f", (double) tick / Math.max(1, done)) + " over " + done + " ticks");
+		if(collide > 0) System.exit(1);
+	}
+
+	//A session played by a bot for long enough that projectiles are spawning and despawning.
+	private static Simulation steadyState(long seed, Bot bot) {
+		Simulation simulation = new Simulation(seed);
+		for(int i = 0; i < 5000 && !simulation.isOver(); i++) {
+			bot.act(simulation);
+			simulation.tick();
+		}
+		return simulation;
+	}
+}
@@ -0,0 +1,210 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+//The workloads behind the JMH benchmarks in jmh/, one for each hot path of the game, built for a given entity count.
+//JMH won't generate benchmarks in the default package, and classes in a named package can't see this one,
+//so the benchmark asks for a workload by name through create() and gets it back as a LongSupplier.
+//Run them with gradle jmh, which writes the results as JSON to build/reports/jmh/results.json.
+public class Benchmarks {
+
+	//Builds the state for one entity count and returns the operation to measure.
+	//The operation returns something derived from its work so the JIT cannot drop it.
+	interface Setup {
+		LongSupplier create(int n) throws Exception;
+	}
+
+	//Variables
+	private static ArrayList<String> names = new ArrayList<String>();
+	private static ArrayList<Setup> setups = new ArrayList<Setup>();
+
+	static {
+		register();
+	}
+
+	//The named workload set up for n entities.
+	public static LongSupplier create(String name, int n) throws Exception {
+		int index = names.indexOf(name);
+		if(index < 0) throw new IllegalArgumentException("No benchmark named " + name);
+		return setups.get(index).create(n);
+	}
+
+	//Every workload's name, in the order they are registered.
+	public static String[] getNames() {
+		return names.toArray(new String[names.size()]);
+	}
+
+	//Every benchmark. Names follow the class and method being measured.
+	private static void register() {
+		add("Rocket.move", n -> {
+			Rocket[] rockets = new Rocket[n];
+			for(int i = 0; i < n; i++) rockets[i] = new Rocket(Simulation.RADIUS, i % 360, 1, 1);
+			return () -> {
+				for(Rocket r : rockets) r.move();
+				return (long) rockets[0].getAngle();
+			};
+		});
+
+		add("ProjectilePool.move", n -> {
+			ProjectilePool projectiles = fill(new ProjectilePool(n), n);
+			return () -> {
+				projectiles.move();
+				//Keep them on screen so every run does the same work.
+				if(projectiles.getRadius(0) > Simulation.BOUNDS) {
+					projectiles.clear();
+					fill(projectiles, n);
+				}
+				return projectiles.size();
+			};
+		});
+
+		add("ProjectilePool.getX", n -> {
+			ProjectilePool projectiles = fill(new ProjectilePool(n), n);
+			return () -> {
+				double total = 0;
+				for(int i = 0; i < projectiles.size(); i++) total += projectiles.getX(i) + projectiles.getY(i);
+				return (long) total;
+			};
+		});
+
+		add("Simulation.checkCollisions", n -> {
+			Simulation simulation = new Simulation(1);
+			fill(simulation.getProjectiles(), n);
+			return () -> {
+				simulation.checkCollisions();
+				return simulation.getProjectiles().size();
+			};
+		});
+
+		add("Simulation.checkCollisions:bruteForce", n -> {
+			Simulation simulation = new Simulation(1, false);
+			fill(simulation.getProjectiles(), n);
+			return () -> {
+				simulation.checkCollisions();
+				return simulation.getProjectiles().size();
+			};
+		});
+
+		add("Simulation.createRocketHitbox", n -> {
+			Simulation simulation = new Simulation(1, true, Difficulty.DEFAULT, n);
+			double[] xpoints = new double[4 * n];
+			double[] ypoints = new double[4 * n];
+			return () -> {
+				for(int i = 0; i < n; i++) simulation.createRocketHitbox(i, xpoints, ypoints, 4 * i);
+				return (long) xpoints[0];
+			};
+		});
+
+		//Moving n rockets and building their hitboxes, chunked in parallel from Simulation.PARALLELTHRESHOLD.
+		add("Simulation.tick:rockets", n -> {
+			//Nothing spawns, so the rockets live forever and every run does the same work.
+			Simulation simulation = new Simulation(1, true, new Difficulty(2.5, 2.5, 200, Long.MAX_VALUE), n);
+			return () -> {
+				simulation.tick();
+				return simulation.getTicks();
+			};
+		});
+
+		add("Simulation.spawnProjectile", n -> {
+			Simulation simulation = new Simulation(1);
+			return () -> {
+				simulation.getProjectiles().clear();
+				for(int i = 0; i < n; i++) simulation.spawnProjectile();
+				return simulation.getProjectiles().size();
+			};
+		});
+
+		//Table lookups against the library, over n angles.
+		add("FastMath.sin", n -> {
+			double[] angles = angles(n);
+			return () -> {
+				double total = 0;
+				for(double a : angles) total += FastMath.sin(a);
+				return (long) total;
+			};
+		});
+
+		add("Math.sin", n -> {
+			double[] angles = angles(n);
+			return () -> {
+				double total = 0;
+				for(double a : angles) total += Math.sin(a);
+				return (long) total;
+			};
+		});
+
+		add("FastMath.cosDegrees:int", n -> {
+			int[] degrees = degrees(n);
+			return () -> {
+				double total = 0;
+				for(int d : degrees) total += FastMath.cosDegrees(d);
+				return (long) total;
+			};
+		});
+
+		add("Math.cos:toRadians", n -> {
+			int[] degrees = degrees(n);
+			return () -> {
+				double total = 0;
+				for(int d : degrees) total += Math.cos(Math.toRadians(d));
+				return (long) total;
+			};
+		});
+
+		add("Leaderboard.add", n -> {
+			Leaderboard leaderboard = new Leaderboard(Integer.MAX_VALUE);
+			Random random = new Random(1);
+			for(int i = 0; i < n; i++) leaderboard.add("", random.nextInt(1000000));
+			return () -> {
+				//Add and take back out so the board stays at n entries.
+				Highscore highscore = leaderboard.add("", random.nextInt(1000000));
+				int rank = leaderboard.rank(highscore.score);
+				leaderboard.removeAt(rank - 1);
+				return rank;
+			};
+		});
+
+		add("Game.paintComponent", n -> {
+			Game game = new Game();
+			game.play();
+			fill(game.getSimulation().getProjectiles(), n);
+			game.publish();
+			BufferedImage image = new BufferedImage(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = image.createGraphics();
+			return () -> {
+				game.paintComponent(g);
+				return image.getRGB(Game.CENTER, Game.CENTER);
+			};
+		});
+	}
+
+	private static void add(String name, Setup setup) {
+		names.add(name);
+		setups.add(setup);
+	}
+
+	//n angles in radians, spread over a few turns like the rocket hitbox corners.
+	private static double[] angles(int n) {
+		Random random = new Random(1);
+		double[] angles = new double[n];
+		for(int i = 0; i < n; i++) angles[i] = (random.nextDouble() - 0.5) * 8 * Math.PI;
+		return angles;
+	}
+
+	//n whole degree angles, as projectiles are spawned with.
+	private static int[] degrees(int n) {
+		Random random = new Random(1);
+		int[] degrees = new int[n];
+		for(int i = 0; i < n; i++) degrees[i] = random.nextInt(360);
+		return degrees;
+	}
+
+	//Fills a pool with n stationary projectiles at random angles and distances, the same every time.
+	private static ProjectilePool fill(ProjectilePool projectiles, int n) {
+		Random random = new Random(n);
+		for(int i = 0; i < n; i++) projectiles.spawn(random.nextDouble(), random.nextInt(360), random.nextDouble() * Simulation.RADIUS * 2);
+		return projectiles;
+	}
+}
@@ -0,0 +1,47 @@
+import java.util.SplittableRandom;
+
+//Checks FastMath against Math. Whole degrees must match exactly and everything else must be within FastMath.PRECISION.
+//Exits with status 1 on any failure.
+//Usage: java -cp out:bench-out FastMathCheck [samples]
+public class FastMathCheck {
+
+	public static void main(String[] args) {
+		int samples = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		boolean failed = false;
+
+		for(int d = -1080; d <= 1080; d++) {
+			double radians = Math.toRadians(d);
+			if(FastMath.sinDegrees(d) != Math.sin(Math.toRadians(Math.floorMod(d, 360)))
+					|| FastMath.cosDegrees(d) != Math.cos(Math.toRadians(Math.floorMod(d, 360)))
+					|| FastMath.sinDegrees((double) d) != FastMath.sinDegrees(d)) {
+				System.out.println("whole degree " + d + " does not match Math");
+				failed = true;
+			}
+			//Wrapping first can change the last bit, so only hold the unwrapped angle to the precision.
+			if(Math.abs(FastMath.sinDegrees(d) - Math.sin(radians)) > 1e-12) {
+				System.out.println("whole degree " + d + " is off by " + Math.abs(FastMath.sinDegrees(d) - Math.sin(radians)));
+				failed = true;
+			}
+		}
+
+		SplittableRandom random = new SplittableRandom(1);
+		double worst = 0;
+		double worstDegrees = 0;
+		for(int i = 0; i < samples; i++) {
+			double radians = random.nextDouble(-100, 100);
+			double degrees = random.nextDouble(-3600, 3600);
+			worst = Math.max(worst, Math.abs(FastMath.sin(radians) - Math.sin(radians)));
+			worst = Math.max(worst, Math.abs(FastMath.cos(radians) - Math.cos(radians)));
+			worstDegrees = Math.max(worstDegrees, Math.abs(FastMath.sinDegrees(degrees) - Math.sin(Math.toRadians(degrees))));
+			worstDegrees = Math.max(worstDegrees, Math.abs(FastMath.cosDegrees(degrees) - Math.cos(Math.toRadians(degrees))));
+		}
+
+		System.out.println("table steps:        " + FastMath.getSteps());
+		System.out.println("precision bound:    " + FastMath.PRECISION);
+		System.out.println("worst radians:      " + worst);
+		System.out.println("worst degrees:      " + worstDegrees);
+		if(worst > FastMath.PRECISION || worstDegrees > FastMath.PRECISION) failed = true;
+		System.out.println(failed ? "FAILED" : "ok");
+		if(failed) System.exit(1);
+	}
+}
@@ -0,0 +1,97 @@
+//Checks the local-space rocket hitbox against the polar polygon it replaced.
+//The old code stored each corner as a distance and angle from the center and rotated it with its own sin and cos.
+//Its third corner used the front edge's angle with the back edge's distance, so the fixed hitbox is compared
+//against the old one with that corner corrected, and the effect of the fix is reported separately.
+//Exits with status 1 if a corner moves by more than a pixel or a point more than a pixel inside or outside changes side.
+//Usage: java -cp out:bench-out HitboxCheck
+public class HitboxCheck {
+
+	public static void main(String[] args) {
+		int[] radii = {Simulation.RADIUS, Simulation.RADIUS - Simulation.ORBITSPACING, Simulation.RADIUS - 2 * Simulation.ORBITSPACING};
+		double worstCorner = 0;
+		long points = 0;
+		long disagreements = 0;
+		long fixedChanges = 0;
+		double[] xs = new double[4];
+		double[] ys = new double[4];
+		double[] oldXs = new double[4];
+		double[] oldYs = new double[4];
+		double[] buggyXs = new double[4];
+		double[] buggyYs = new double[4];
+
+		for(int radius : radii) {
+			for(int step = 0; step < 3600; step++) {
+				//Whole degrees like the game, and tenths for rockets at other speeds.
+				double angle = step % 10 == 0 ? step / 10 : step / 10.0;
+				//A rocket moving by the whole angle in one step, so it can sit at fractions of a degree.
+				Rocket r = new Rocket(radius, 0, angle, -1);
+				r.move();
+				Simulation simulation = new Simulation(1, true, Difficulty.DEFAULT, java.util.Collections.singletonList(r));
+				simulation.createRocketHitbox(0, xs, ys, 0);
+				oldHitbox(r, oldXs, oldYs, false);
+				oldHitbox(r, buggyXs, buggyYs, true);
+
+				for(int k = 0; k < 4; k++) worstCorner = Math.max(worstCorner, Math.hypot(xs[k] - oldXs[k], ys[k] - oldYs[k]));
+
+				//Every point on a grid around the rocket should be on the same side of both.
+				double cx = r.getRadius() * Math.cos(Math.toRadians(angle));
+				double cy = r.getRadius() * Math.sin(Math.toRadians(angle));
+				for(int dx = -48; dx <= 48; dx += 3) {
+					for(int dy = -48; dy <= 48; dy += 3) {
+						double x = cx + dx + 0.5;
+						double y = cy + dy + 0.5;
+						boolean inside = Simulation.quadContains(xs, ys, 0, x, y);
+						boolean before = Simulation.quadContains(oldXs, oldYs, 0, x, y);
+						points++;
+						if(inside != before && distanceToEdge(oldXs, oldYs, x, y) > 1) disagreements++;
+						if(inside != Simulation.quadContains(buggyXs, buggyYs, 0, x, y)) fixedChanges++;
+					}
+				}
+			}
+		}
+
+		System.out.println("worst corner distance:     " + String.format("%.3f", worstCorner) + " px");
+		System.out.println("points tested:             " + points);
+		System.out.println("disagreements past 1 px:   " + disagreements);
+		System.out.println("points moved by the fix:   " + fixedChanges + " (" + String.format("%.2f", 100.0 * fixedChanges / points) + "%)");
+		boolean failed = worstCorner > 1.5 || disagreements > 0;
+		System.out.println(failed ? "FAILED" : "ok");
+		if(failed) System.exit(1);
+	}
+
+	//The hitbox as it used to be built, from the corners of a rocket at angle 0 in polar form.
+	private static void oldHitbox(Rocket r, double[] xpoints, double[] ypoints, boolean thirdCornerBug) {
+		int size = Simulation.ROCKETSIZE;
+		int x = r.getRadius();
+		int y = 0;
+		double[] radius = {
+				Math.hypot(x + 15 * size / 100, y - size / 2),
+				Math.hypot(x - 2 * size / 10, y - size / 2),
+				Math.hypot(x - 2 * size / 10, y + size / 2),
+				Math.hypot(x + 15 * size / 100, y + size / 2)};
+		double[] angle = {
+				Math.atan2(y - size / 2, x + 15 * size / 100),
+				Math.atan2(y - size / 2, x - 2 * size / 10),
+				Math.atan2(y + size / 2, thirdCornerBug ? x + 15 * size / 100 : x - 2 * size / 10),
+				Math.atan2(y + size / 2, x + 15 * size / 100)};
+		double rotation = Math.toRadians(r.getAngle());
+		for(int k = 0; k < 4; k++) {
+			xpoints[k] = (int) (radius[k] * Math.cos(angle[k] + rotation));
+			ypoints[k] = (int) (radius[k] * Math.sin(angle[k] + rotation));
+		}
+	}
+
+	//Distance from a point to the nearest edge of a quad.
+	private static double distanceToEdge(double[] xs, double[] ys, double x, double y) {
+		double best = Double.MAX_VALUE;
+		for(int k = 0; k < 4; k++) {
+			int j = (k + 1) & 3;
+			double dx = xs[j] - xs[k];
+			double dy = ys[j] - ys[k];
+			double t = ((x - xs[k]) * dx + (y - ys[k]) * dy) / (dx * dx + dy * dy);
+			t = Math.max(0, Math.min(1, t));
+			best = Math.min(best, Math.hypot(x - xs[k] - t * dx, y - ys[k] - t * dy));
+		}
+		return best;
+	}
+}
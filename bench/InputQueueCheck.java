@@ -0,0 +1,63 @@
+import java.util.concurrent.locks.LockSupport;
+
+//Checks InputQueue across two threads. A producer pushes numbered events as fast as it can while the consumer
+//drains them in bursts, like a tick would. Every event must arrive whole and in order, and every missing one must
+//have been counted as dropped. Exits with status 1 on any failure.
+//Usage: java -cp out:bench-out InputQueueCheck [events]
+public class InputQueueCheck {
+
+	public static void main(String[] args) throws InterruptedException {
+		int events = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		InputQueue queue = new InputQueue();
+		int[] pushed = new int[1];
+
+		Thread producer = new Thread(() -> {
+			for(int i = 0; i < events; i++) {
+				//The fields are tied together so a torn event shows up.
+				if(queue.push(i & 3, i, ~i, i * 31)) pushed[0]++;
+				if((i & 1023) == 0) Thread.yield();
+			}
+		}, "producer");
+
+		long[] received = new long[1];
+		int[] last = {-1};
+		boolean[] failed = new boolean[1];
+		InputQueue.Handler handler = (type, code, x, y) -> {
+			if(type != (code & 3) || x != ~code || y != code * 31) {
+				if(!failed[0]) System.out.println("event " + code + " arrived torn");
+				failed[0] = true;
+			}
+			if(code <= last[0]) {
+				if(!failed[0]) System.out.println("event " + code + " arrived after " + last[0]);
+				failed[0] = true;
+			}
+			last[0] = code;
+			received[0]++;
+		};
+
+		long start = System.nanoTime();
+		producer.start();
+		int drains = 0;
+		while(producer.isAlive() || queue.size() > 0) {
+			if(queue.drain(handler) > 0) drains++;
+			LockSupport.parkNanos(50000);
+		}
+		producer.join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long[] latency = new long[PhaseRecorder.BUCKETS];
+		queue.getLatency().copyCounts(latency);
+		System.out.println("events pushed:     " + pushed[0] + " of " + events);
+		System.out.println("events received:   " + received[0] + " in " + drains + " drains");
+		System.out.println("events dropped:    " + queue.getDropped());
+		System.out.println("seconds:           " + String.format("%.3f", seconds));
+		System.out.println("latency p50 / p99: " + String.format("%.3f / %.3f ms",
+				PhaseRecorder.percentile(latency, 50) / 1e6, PhaseRecorder.percentile(latency, 99) / 1e6));
+		if(received[0] != pushed[0] || pushed[0] + queue.getDropped() != events) {
+			System.out.println("events went missing");
+			failed[0] = true;
+		}
+		if(failed[0]) System.exit(1);
+		System.out.println("ok");
+	}
+}
@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Checks that a saved replay plays back exactly when there are more rockets than fit in a byte.
+//Bots fly every rocket, the inputs are saved and loaded again, and each rocket of the replayed session must end
+//with the same angle, direction and health as the recorded one, and the replay must agree that it matches.
+//Exits with status 1 if any rocket differs or the replay's own check disagrees with the comparison.
+//Usage: java -cp out:bench-out ReplayCheck [rockets] [ticks] [seed]
+public class ReplayCheck {
+
+	public static void main(String[] args) throws IOException {
+		int rocketCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : 20000;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 7;
+
+		Replay replay = new Replay(seed, rocketCount);
+		Simulation recorded = new Simulation(seed, true, Difficulty.DEFAULT, rocketCount);
+		recorded.setRecorder(replay);
+		Bot[] bots = new Bot[rocketCount];
+		for(int i = 0; i < rocketCount; i++) bots[i] = new Bot(i, 40, 12);
+		while(!recorded.isOver() && recorded.getTicks() < maxTicks) {
+			for(Bot bot : bots) bot.act(recorded);
+			recorded.tick();
+		}
+		replay.finish(recorded);
+
+		Path file = Files.createTempFile("replay", ".orbp");
+		Replay loaded;
+		Simulation played;
+		long bytes;
+		try {
+			replay.save(file);
+			bytes = Files.size(file);
+			loaded = Replay.load(file);
+			played = loaded.play();
+		} finally {
+			Files.delete(file);
+		}
+
+		int different = 0;
+		for(int i = 0; i < rocketCount; i++) {
+			Rocket a = recorded.getRockets().get(i);
+			Rocket b = played.getRockets().get(i);
+			if(a.getAngle() != b.getAngle() || a.getDirection() != b.getDirection() || a.getHealth() != b.getHealth()) different++;
+		}
+		System.out.println("rockets:   " + rocketCount);
+		System.out.println("ticks:     " + recorded.getTicks());
+		System.out.println("inputs:    " + replay.size());
+		System.out.println("bytes:     " + bytes);
+		System.out.println("different: " + different);
+		System.out.println("matches:   " + loaded.matches(played));
+		if(different > 0 || !loaded.matches(played)) System.exit(1);
+		System.out.println("ok");
+	}
+}
@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+//Checks that ScoreWriter coalesces a burst of saves.
+//Submits saves a few milliseconds apart, the way a player typing a name would, waits for them to reach the disk
+//and counts the writes. Each write waits out a whole coalescing window, so a burst may take one write per window
+//it spans plus one it straddles. A writer whose window restarts on every save takes about one write per two saves.
+//Exits with status 1 if a burst took more writes or the file doesn't hold the last table.
+//Usage: java -cp out:bench-out ScoreWriterCheck [saves per burst] [milliseconds between saves] [bursts]
+public class ScoreWriterCheck {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int saves = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		long gap = args.length > 1 ? Long.parseLong(args[1]) : 5;
+		int bursts = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		int allowed = (int) ((saves - 1) * gap / ScoreWriter.COALESCEDELAY) + 2;
+
+		Path directory = Files.createTempDirectory("scores");
+		Path file = directory.resolve("highscores.bin");
+		HighscoreStore store = new HighscoreStore(file.toString(), null);
+		ScoreWriter writer = new ScoreWriter(store);
+		ArrayList<Highscore> table = new ArrayList<Highscore>();
+		boolean failed = false;
+		try {
+			for(int b = 0; b < bursts; b++) {
+				long before = writer.getWrites();
+				for(int i = 0; i < saves; i++) {
+					table.add(new Highscore("burst " + b, i));
+					writer.submit(table);
+					Thread.sleep(gap);
+				}
+				writer.flush();
+				long writes = writer.getWrites() - before;
+				System.out.println("burst " + b + ": " + saves + " saves in " + writes + " writes");
+				if(writes > allowed) failed = true;
+				if(store.load().size() != table.size()) {
+					System.out.println("burst " + b + " left an old table on disk");
+					failed = true;
+				}
+			}
+			writer.close();
+			System.out.println(writer.report());
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(directory.resolve("highscores.bin.tmp"));
+			Files.delete(directory);
+		}
+		if(failed) {
+			System.out.println("a burst took more than " + allowed + " writes");
+			System.exit(1);
+		}
+		System.out.println("ok");
+	}
+}
@@ -0,0 +1,38 @@
+import java.util.Random;
+
+//Compares the polar grid collision path against brute force at increasing projectile counts.
+//Usage: java -cp out:bench-out SpatialIndexBenchmark
+public class SpatialIndexBenchmark {
+
+	public static void main(String[] args) {
+		int[] counts = {10, 100, 1000, 100000};
+		System.out.println(String.format("%10s %16s %16s %8s", "entities", "brute ns/op", "indexed ns/op", "speedup"));
+		for(int count : counts) {
+			double brute = measure(count, false);
+			double indexed = measure(count, true);
+			System.out.println(String.format("%10d %16.1f %16.1f %7.1fx", count, brute, indexed, brute / indexed));
+		}
+	}
+
+	//Average time for one collision pass over a world filled with count projectiles.
+	private static double measure(int count, boolean indexed) {
+		Simulation simulation = new Simulation(1, indexed);
+		Random random = new Random(count);
+		ProjectilePool projectiles = simulation.getProjectiles();
+		for(int i = 0; i < count; i++) {
+			projectiles.spawn(0, random.nextInt(360), random.nextDouble() * Simulation.BOUNDS);
+		}
+
+		//The first passes remove whatever was spawned inside the rocket, after that the world is steady.
+		int iterations = (int) Math.max(200, 20000000L / count);
+		for(int i = 0; i < iterations; i++) simulation.checkCollisions();
+
+		long best = Long.MAX_VALUE;
+		for(int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for(int i = 0; i < iterations; i++) simulation.checkCollisions();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return (double) best / iterations;
+	}
+}
@@ -0,0 +1,62 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+//Flight Recorder events for every tick and frame. The project targets Java 9 and jdk.jfr needs 11,
+//so this lives outside src and is compiled on its own. The Gradle build does that as the jfr source set and
+//gradle run puts it on the classpath. By hand:
+//    javac --release 11 -cp out -d jfr-out jfr/*.java
+//With jfr-out on the classpath, Instrumentation.create() picks it up, and a recording such as
+//    java -XX:StartFlightRecording=filename=orbiter.jfr -cp out:jfr-out:. Orbiter
+//contains orbiter.Tick and orbiter.Frame events. Without it the game runs the same, just without them.
+public class JfrSink implements Instrumentation.Sink {
+
+	@Name("orbiter.Tick")
+	@Label("Simulation Tick")
+	@Category("Orbiter")
+	@Description("Time spent in each phase of one simulation tick")
+	static class TickEvent extends Event {
+		@Label("Move") @Timespan(Timespan.NANOSECONDS) long move;
+		@Label("Collide") @Timespan(Timespan.NANOSECONDS) long collide;
+		@Label("Spawn") @Timespan(Timespan.NANOSECONDS) long spawn;
+		@Label("Projectiles") int projectiles;
+		@Label("Health Packs") int health;
+		@Label("Score") int score;
+	}
+
+	@Name("orbiter.Frame")
+	@Label("Rendered Frame")
+	@Category("Orbiter")
+	@Description("Time spent in each phase of drawing one frame")
+	static class FrameEvent extends Event {
+		@Label("Background") @Timespan(Timespan.NANOSECONDS) long background;
+		@Label("Entities") @Timespan(Timespan.NANOSECONDS) long entities;
+		@Label("HUD") @Timespan(Timespan.NANOSECONDS) long hud;
+	}
+
+	@Override
+	public void tick(long move, long collide, long spawn, int projectiles, int health, int score) {
+		TickEvent event = new TickEvent();
+		if(!event.isEnabled()) return;
+		event.move = move;
+		event.collide = collide;
+		event.spawn = spawn;
+		event.projectiles = projectiles;
+		event.health = health;
+		event.score = score;
+		event.commit();
+	}
+
+	@Override
+	public void frame(long background, long entities, long hud) {
+		FrameEvent event = new FrameEvent();
+		if(!event.isEnabled()) return;
+		event.background = background;
+		event.entities = entities;
+		event.hud = hud;
+		event.commit();
+	}
+}
@@ -0,0 +1,51 @@
+package orbiter.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Average time of one call of each workload in bench/Benchmarks.java, at each entity count.
+//Every workload and count gets its own forked JVMs, so the call below only ever sees one workload and is timed
+//the way it would be inlined in the game. JMH needs a named package, so the workload is looked up by name.
+//Run with gradle jmh, or pass JMH options with gradle jmh -Pjmh="-p workload=Rocket.move -f 1".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OrbiterBenchmark {
+
+	@Param({"Rocket.move", "ProjectilePool.move", "ProjectilePool.getX", "Simulation.checkCollisions",
+			"Simulation.checkCollisions:bruteForce", "Simulation.createRocketHitbox", "Simulation.tick:rockets",
+			"Simulation.spawnProjectile", "FastMath.sin", "Math.sin", "FastMath.cosDegrees:int", "Math.cos:toRadians",
+			"Leaderboard.add", "Game.paintComponent"})
+	public String workload;
+
+	@Param({"10", "1000", "100000"})
+	public int n; //Entities the workload is set up with.
+
+	private LongSupplier operation;
+
+	@Setup
+	public void setup() throws Exception {
+		operation = (LongSupplier) Class.forName("Benchmarks").getMethod("create", String.class, int.class).invoke(null, workload, n);
+	}
+
+	//JMH consumes the result, so the work behind it can't be dropped.
+	@Benchmark
+	public long run() {
+		return operation.getAsLong();
+	}
+}
@@ -0,0 +1,90 @@
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+//Loads sprites once and converts them to images in the screen's native format at the size they are drawn,
+//so drawing them each frame is a straight copy with no scaling or pixel format conversion.
+public class Assets {
+
+	//Format of the screen, or null when running headless.
+	private static GraphicsConfiguration configuration() {
+		if(GraphicsEnvironment.isHeadless()) return null;
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+	}
+
+	//A blank translucent image in the screen's format.
+	public static BufferedImage compatible(int width, int height) {
+		GraphicsConfiguration configuration = configuration();
+		if(configuration == null) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+		return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	//A blank opaque image in the screen's format. Copying these needs no blending.
+	public static BufferedImage opaque(int width, int height) {
+		GraphicsConfiguration configuration = configuration();
+		if(configuration == null) return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		return configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+	}
+
+	//Reads an image from the classpath and scales it to its final draw size. Returns null if it can't be read.
+	public static BufferedImage load(String path, int width, int height) {
+		BufferedImage source;
+		try {
+			InputStream stream = Assets.class.getResourceAsStream(path);
+			if(stream == null) throw new IOException("Could not find " + path);
+			source = ImageIO.read(stream);
+			stream.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+
+		BufferedImage image = compatible(width, height);
+		Graphics2D g = image.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g.drawImage(source, 0, 0, width, height, null);
+		g.dispose();
+		return image;
+	}
+
+	//Renders a sprite rotated to each of steps evenly spaced angles, starting at 0 and going clockwise.
+	//Each image is a square big enough for any rotation, with the sprite's center at the square's center.
+	public static BufferedImage[] rotations(BufferedImage sprite, int steps) {
+		BufferedImage[] rotations = new BufferedImage[steps];
+		if(sprite == null) return rotations;
+		int size = rotatedSize(sprite);
+		for(int i = 0; i < steps; i++) {
+			BufferedImage image = compatible(size, size);
+			Graphics2D g = image.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.rotate(2 * Math.PI * i / steps, size / 2.0, size / 2.0);
+			g.drawImage(sprite, (size - sprite.getWidth()) / 2, (size - sprite.getHeight()) / 2, null);
+			g.dispose();
+			rotations[i] = image;
+		}
+		return rotations;
+	}
+
+	//Side of the square that rotations() renders a sprite into.
+	public static int rotatedSize(BufferedImage sprite) {
+		return (int) Math.ceil(Math.hypot(sprite.getWidth(), sprite.getHeight()));
+	}
+
+	//Index into rotations() of the image closest to an angle in degrees.
+	public static int rotationStep(double angle, int steps) {
+		int step = (int) Math.round(angle * steps / 360) % steps;
+		return step < 0 ? step + steps : step;
+	}
+}
@@ -0,0 +1,76 @@
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+//Something that never changes during a session, rasterized once and drawn with a single copy.
+//Kept in a VolatileImage so the copy can stay on the graphics card, with a BufferedImage master
+//to restore it from whenever the card throws the surface away.
+public class BackgroundLayer {
+
+	//Draws the layer's contents.
+	public interface Painter {
+		void paint(Graphics2D g);
+	}
+
+	//Variables
+	private final int width;
+	private final int height;
+	private final Painter painter;
+	private BufferedImage master; //Rasterized contents, or null until the next draw.
+	private VolatileImage accelerated; //Copy of master in video memory, or null.
+	private boolean stale; //Whether accelerated no longer matches master.
+
+	public BackgroundLayer(int width, int height, Painter painter) {
+		this.width = width;
+		this.height = height;
+		this.painter = painter;
+	}
+
+	//Re-rasterizes the contents the next time the layer is drawn.
+	public void invalidate() {
+		master = null;
+	}
+
+	public void draw(Graphics g) {
+		if(master == null) {
+			master = Assets.opaque(width, height);
+			Graphics2D mg = master.createGraphics();
+			painter.paint(mg);
+			mg.dispose();
+			stale = true;
+		}
+
+		GraphicsConfiguration configuration = ((Graphics2D) g).getDeviceConfiguration();
+		if(GraphicsEnvironment.isHeadless() || configuration == null) {
+			g.drawImage(master, 0, 0, null);
+			return;
+		}
+
+		do {
+			if(accelerated == null) {
+				accelerated = configuration.createCompatibleVolatileImage(width, height);
+				stale = true;
+			}
+			int status = accelerated.validate(configuration);
+			if(status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				//Moved to a different screen.
+				accelerated.flush();
+				accelerated = configuration.createCompatibleVolatileImage(width, height);
+				stale = true;
+			} else if(status == VolatileImage.IMAGE_RESTORED) {
+				//Surface was lost and has come back empty.
+				stale = true;
+			}
+			if(stale) {
+				Graphics2D ag = accelerated.createGraphics();
+				ag.drawImage(master, 0, 0, null);
+				ag.dispose();
+				stale = false;
+			}
+			g.drawImage(accelerated, 0, 0, null);
+		} while(accelerated.contentsLost());
+	}
+}
@@ -0,0 +1,38 @@
+//A simple player for headless sessions. Turns the rocket around when a projectile is about to cross its path.
+public class Bot {
+
+	//Variables
+	private int rocket; //Index of the rocket being controlled.
+	private double lookahead; //How many ticks ahead to look for incoming projectiles.
+	private double margin; //Angular distance in degrees that counts as a hit.
+
+	public Bot(int rocket, double lookahead, double margin) {
+		this.rocket = rocket;
+		this.lookahead = lookahead;
+		this.margin = margin;
+	}
+
+	//Decides whether to change direction before the next tick.
+	public void act(Simulation simulation) {
+		Rocket r = simulation.getRockets().get(rocket);
+		if(r.getHealth() <= 0) return;
+		boolean ahead = danger(simulation, r, r.getDirection());
+		if(ahead && !danger(simulation, r, -r.getDirection())) simulation.changeDirection(rocket);
+	}
+
+	//Whether continuing in the given direction runs into a projectile within the lookahead.
+	private boolean danger(Simulation simulation, Rocket r, int direction) {
+		ProjectilePool projectiles = simulation.getProjectiles();
+		for(int i = 0; i < projectiles.size(); i++) {
+			double speed = projectiles.getSpeed(i);
+			double radius = projectiles.getRadius(i);
+			if(speed <= 0 || radius > r.getRadius()) continue;
+			double ticks = (r.getRadius() - radius) / speed;
+			if(ticks > lookahead) continue;
+			double angle = r.getAngle() - direction * r.getSpeed() * ticks;
+			double difference = Math.abs(((angle - projectiles.getAngle(i)) % 360 + 540) % 360 - 180);
+			if(difference < margin) return true;
+		}
+		return false;
+	}
+}
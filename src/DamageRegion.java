@@ -0,0 +1,69 @@
+import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicLong;
+
+//The part of the window that has changed since it was last drawn. Any thread may add to it and one thread
+//takes it, so the loop can say what a tick changed and the renderer only redraws that.
+//Kept as the bounding box of everything added, packed into one long so adding and taking never lock or allocate.
+public class DamageRegion {
+
+	//Constants
+	private static final long NONE = 0; //Packed value of an empty region. A real one always has x2 > x1 >= 0.
+
+	//Variables
+	private final int width; //Size of the window. Everything added is clipped to it.
+	private final int height;
+	private final AtomicLong packed = new AtomicLong(); //x1, y1, x2, y2 in 16 bits each.
+
+	public DamageRegion(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	//Marks a rectangle as changed.
+	public void add(int x, int y, int w, int h) {
+		int x1 = Math.max(0, x);
+		int y1 = Math.max(0, y);
+		int x2 = Math.min(width, x + w);
+		int y2 = Math.min(height, y + h);
+		if(x2 <= x1 || y2 <= y1) return;
+		long current;
+		long union;
+		do {
+			current = packed.get();
+			if(current == NONE) {
+				union = pack(x1, y1, x2, y2);
+			} else {
+				union = pack(Math.min(x1, field(current, 0)), Math.min(y1, field(current, 1)),
+						Math.max(x2, field(current, 2)), Math.max(y2, field(current, 3)));
+			}
+		} while(union != current && !packed.compareAndSet(current, union));
+	}
+
+	//Marks the whole window as changed.
+	public void addAll() {
+		add(0, 0, width, height);
+	}
+
+	//Moves everything changed so far into another region and clears this one.
+	public void moveTo(DamageRegion other) {
+		long taken = packed.getAndSet(NONE);
+		if(taken == NONE) return;
+		other.add(field(taken, 0), field(taken, 1), field(taken, 2) - field(taken, 0), field(taken, 3) - field(taken, 1));
+	}
+
+	//Moves everything changed so far into into and clears it. Returns false, leaving into alone, if nothing changed.
+	public boolean take(Rectangle into) {
+		long taken = packed.getAndSet(NONE);
+		if(taken == NONE) return false;
+		into.setBounds(field(taken, 0), field(taken, 1), field(taken, 2) - field(taken, 0), field(taken, 3) - field(taken, 1));
+		return true;
+	}
+
+	private static long pack(int x1, int y1, int x2, int y2) {
+		return (long) x1 << 48 | (long) y1 << 32 | (long) x2 << 16 | y2;
+	}
+
+	private static int field(long packed, int index) {
+		return (int) (packed >>> (48 - 16 * index)) & 0xFFFF;
+	}
+}
@@ -0,0 +1,48 @@
+//How hard a session gets as the score climbs.
+//Projectiles spawn every spawnSpeed nanoseconds of sim time, and their speed is
+//baseSpeed + speedSpread * ramp * (random from -1 to 1), where ramp = 1 - 1 / (1 + score / rampScore)
+//grows from 0 towards 1 and is one half when the score reaches rampScore.
+public class Difficulty {
+
+	//The curve the game ships with.
+	public static final Difficulty DEFAULT = new Difficulty(2.5, 2.5, 200, Simulation.SPAWNSPEED);
+
+	//Variables
+	private final double baseSpeed; //Average projectile speed.
+	private final double speedSpread; //Most a projectile's speed can differ from the average once fully ramped.
+	private final double rampScore; //Score at which the spread is half way to its full size.
+	private final long spawnSpeed; //Nanoseconds of sim time between projectile spawns.
+
+	public Difficulty(double baseSpeed, double speedSpread, double rampScore, long spawnSpeed) {
+		this.baseSpeed = baseSpeed;
+		this.speedSpread = speedSpread;
+		this.rampScore = rampScore;
+		this.spawnSpeed = spawnSpeed;
+	}
+
+	//Speed of a projectile spawned at this score. Random is uniform from -1 to 1.
+	public double projectileSpeed(int score, double random) {
+		return baseSpeed + speedSpread * (1 -  1 / (1 + score / rampScore)) * random;
+	}
+
+	public double getBaseSpeed() {
+		return baseSpeed;
+	}
+
+	public double getSpeedSpread() {
+		return speedSpread;
+	}
+
+	public double getRampScore() {
+		return rampScore;
+	}
+
+	public long getSpawnSpeed() {
+		return spawnSpeed;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("base %.2f spread %.2f ramp %.0f spawn %dms", baseSpeed, speedSpread, rampScore, spawnSpeed / 1000000);
+	}
+}
@@ -0,0 +1,77 @@
+//Table based sine and cosine for the hot paths.
+//Integer degrees, which is how projectiles and health packs are placed, come straight from exact tables.
+//Anything else is linearly interpolated from a table sized so the error stays under PRECISION,
+//set with -Dorbiter.trigprecision (default 1e-6). The error of linear interpolation is at most step^2 / 8.
+public final class FastMath {
+
+	//Constants
+	public static final double PRECISION = Double.parseDouble(System.getProperty("orbiter.trigprecision", "1e-6"));
+	private static final double[] SINDEGREES = new double[360]; //Exact sine of every whole degree.
+	private static final double[] COSDEGREES = new double[360]; //Exact cosine of every whole degree.
+	private static final int STEPS; //Table entries per full turn, a power of two so wrapping is a mask.
+	private static final int QUARTER; //Entries per quarter turn. Cosine reads the sine table this far ahead.
+	private static final double STEPSPERRADIAN;
+	private static final double STEPSPERDEGREE;
+	private static final double[] SIN; //Sine at every step, with a quarter turn and one extra entry past the end.
+
+	static {
+		for(int i = 0; i < 360; i++) {
+			SINDEGREES[i] = Math.sin(Math.toRadians(i));
+			COSDEGREES[i] = Math.cos(Math.toRadians(i));
+		}
+
+		int steps = 1024;
+		while(2 * Math.PI / steps > Math.sqrt(8 * PRECISION) && steps < (1 << 24)) steps *= 2;
+		STEPS = steps;
+		QUARTER = steps / 4;
+		STEPSPERRADIAN = steps / (2 * Math.PI);
+		STEPSPERDEGREE = steps / 360.0;
+		SIN = new double[steps + QUARTER + 1];
+		for(int i = 0; i < SIN.length; i++) SIN[i] = Math.sin(i / STEPSPERRADIAN);
+	}
+
+	private FastMath() {
+	}
+
+	public static double sinDegrees(int degrees) {
+		return SINDEGREES[Math.floorMod(degrees, 360)];
+	}
+
+	public static double cosDegrees(int degrees) {
+		return COSDEGREES[Math.floorMod(degrees, 360)];
+	}
+
+	//Exact when the angle is a whole number of degrees, interpolated otherwise.
+	public static double sinDegrees(double degrees) {
+		int whole = (int) degrees;
+		if(whole == degrees) return sinDegrees(whole);
+		return lookup(degrees * STEPSPERDEGREE, 0);
+	}
+
+	public static double cosDegrees(double degrees) {
+		int whole = (int) degrees;
+		if(whole == degrees) return cosDegrees(whole);
+		return lookup(degrees * STEPSPERDEGREE, QUARTER);
+	}
+
+	public static double sin(double radians) {
+		return lookup(radians * STEPSPERRADIAN, 0);
+	}
+
+	public static double cos(double radians) {
+		return lookup(radians * STEPSPERRADIAN, QUARTER);
+	}
+
+	//Table size in use, for reports.
+	public static int getSteps() {
+		return STEPS;
+	}
+
+	//Interpolates between the two table entries either side of a position measured in steps.
+	private static double lookup(double position, int offset) {
+		double floor = Math.floor(position);
+		int i = ((int) (long) floor & (STEPS - 1)) + offset;
+		double a = SIN[i];
+		return a + (SIN[i + 1] - a) * (position - floor);
+	}
+}
@@ -5,23 +5,41 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
-public class Game extends JPanel implements KeyListener, MouseListener{
+public class Game extends JPanel implements KeyListener, MouseListener, GameLoop.Listener{
 	
 	//Constants
 	private static final long serialVersionUID = 1L;
 	public static final int CENTER = Orbiter.WINDOWSIZE / 2;
-	public static final int RADIUS = 250;
+	public static final int RADIUS = Simulation.RADIUS;
 	public static final int EARTHSIZE = 128;
-	public static final int ROCKETSIZE = 64;
+	public static final int ROCKETSIZE = Simulation.ROCKETSIZE;
 	public static final int PROJECTILESIZE = 16;
-	public static final int SPAWNSPEED = 25;
+	public static final double FADESPEED = 200; //Alpha change per second of sim time during transitions.
 	public static final Color BACKGROUNDCOLOR = new Color(0, 0, 40);
 	public static final int STARSPACING = 60;
+	public static final String SCORESFILE = "highscores.bin";
+	public static final String LEGACYSCORESFILE = "highscores.dat"; //Text format from older versions, imported once.
+	public static final int SHOWNSCORES = 10; //High scores listed on the scores screen.
+	public static final int KEPTSCORES = Integer.getInteger("orbiter.keptscores", SHOWNSCORES); //High scores kept and saved.
+	public static final int ROTATIONSTEPS = 180; //Number of pre-rendered rocket angles.
+	public static final int MAXPLAYERS = 2; //Local players. The first uses left click or A, the second right click or L.
+	public static final int HEALTHBARS = 4; //Most health bars drawn. More rockets than this show a count instead.
+	public static final int OVERLAYKEY = KeyEvent.VK_F3; //Shows and hides the performance overlay.
+	public static final Font OVERLAYFONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+	public static final Rectangle OVERLAYBOUNDS = new Rectangle(Orbiter.WINDOWSIZE - 238, 8, 230, 124); //Where the overlay is drawn.
+	public static final Font HUDFONT = new Font("Arial", Font.PLAIN, 20); //Score and rocket count.
+	public static final Font HEADINGFONT = new Font("Arial", Font.BOLD, 30); //Scores screen heading.
+	public static final Font ROWFONT = new Font("Arial", Font.BOLD, 28); //High score rows.
+	public static final int ROWSPACING = 45; //Distance between high score rows.
+	public static final boolean CACHEBACKGROUND = !Boolean.getBoolean("orbiter.nobackgroundcache"); //Off to compare frame times.
+	public static final boolean FRAMETIMEREPORT = Boolean.getBoolean("orbiter.frametime"); //Prints frame times every REPORTFRAMES frames.
+	public static final int REPORTFRAMES = 300;
 
 	
 	//Images
@@ -37,44 +55,110 @@ public class Game extends JPanel implements KeyListener, MouseListener{
 	private BufferedImage backButtonImg;
 	private BufferedImage scoresButtonImg;
 	private BufferedImage titleImg;
+	private BufferedImage[] rocketRotations; //rocketImg pre-rendered at every rotation step.
+	private BufferedImage[] rocketReverseRotations; //rocketReverseImg pre-rendered at every rotation step.
+	private int rotationSize; //Size of each pre-rendered rocket image.
 
 	//Variables
-	private ArrayList<Rocket> rockets; //An arraylist to hold the rocket objects.
-	private ArrayList<Projectile> projectiles; //An arraylist to hold the projectile objects.
+	private Simulation simulation; //The world being played. Rockets, projectiles, health and score live here.
 	private boolean paused; //Is the game paused
-	private String gameState; //String that represents the state of the game. Menu, Instructions, Game, etc.
-    private int score; //Keeps track of the score.
-    private int alpha; //Used for transition between screens
-	private boolean transitioningTo; //Used for transition between scenes.
-	private String nextState; //Used for transition between scenes.
+	private GameState state; //Screen the game is on.
+	private Transition transition; //Fade between screens in progress, or null.
+	private Screen[] screens; //Handler for each state, by ordinal.
 	private Polygon startButtonPoly; //Polygon used for clicking on start button.
 	private Polygon exitButtonPoly; //Polygon used for clicking on exit button.
 	private Polygon exitGameButtonPoly; //Polygon used for clicking on exit button.
     private Polygon scoresButtonPoly; //Polygon used for clicking on high scores button.
 	private Polygon backButtonPoly; //Polygon used for navigating to menu.
     private Point[][] starLocations; //Holds locations for star images.
-	private ArrayList<Point> health; //Holds the locations for health packs.
-	private int counter = 0; //Incremented every frame. Used for timing projectile and health spawns.
-	private ArrayList<Highscore> highscores; //Keeps track of the top 10 scores;
+	private BackgroundLayer menuBackground; //Stars and the earth behind the menu.
+	private BackgroundLayer gameBackground; //Stars behind the game.
+	private PhaseRecorder.Interval frameReport; //Frame times since the last orbiter.frametime report. Render thread only.
+	private int reportFrames; //Frames since the last report.
+	private Leaderboard highscores; //Keeps track of the top scores.
+	private Highscore newHighscore; //Entry waiting for its name, or null.
+	private HighscoreStore highscoreStore; //Where the high scores are saved.
+	private ScoreWriter scoreWriter; //Saves the high scores in the background.
     private String newName; //Name of the new high score.
 	private boolean editing; //Whether or not they are entering in a new high score.
-	
+	private volatile double interpolation; //How far the renderer is between the last two ticks.
+	private SnapshotExchange snapshots; //Hands the state of each finished tick to the renderer.
+	private GameCanvas canvas; //Drawn to directly by the loop in active rendering, or null to paint through Swing.
+	private SplittableRandom random; //Seeds each session and places the stars, so a game seed reproduces everything.
+	private InputQueue input = new InputQueue(); //Events from the listeners waiting for the next tick.
+	private final InputQueue.Handler inputHandler = this::applyInput; //Kept so draining doesn't make a new lambda each tick.
+	private int rocketCount = 1; //Rockets in each session.
+	private int players = 1; //Rockets steered locally. The rest are flown by bots.
+	private Bot[] bots = new Bot[0]; //Bots flying the rockets no one is steering.
+	private Replay replay; //Inputs of the current session.
+	private Path replayFile; //Where each finished session's replay is saved, or null.
+	private Instrumentation instrumentation; //Times every tick and frame.
+	private volatile GameLoop loop; //Loop running the game, or null before start().
+	private volatile boolean overlay; //Whether the performance overlay is showing.
+	private PhaseRecorder.Interval tickTimes; //Tick times over the last second, for the overlay.
+	private PhaseRecorder.Interval frameTimes; //Frame times over the last second, for the overlay.
+	private PhaseRecorder.Interval inputLatency; //Time input waited for a tick over the last second, for the overlay.
+	private volatile long overlayUpdated; //When the overlay's intervals last started.
+	private DamageRegion damage = new DamageRegion(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE); //What changed since the last frame.
+	private DamageRegion tickDamage = new DamageRegion(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE); //What the tick being published changed. Loop thread only.
+	private FontMetrics rowMetrics; //Size of ROWFONT, so a row's image and the area it damages agree.
+	private Rectangle dirty = new Rectangle(); //Area being redrawn this frame. Render thread only.
+	private volatile boolean still; //Whether the screen being shown only changes when damaged.
+	private GameState publishedState; //State, fade and name in the last snapshot, to tell what a tick changed.
+	private double publishedAlpha = -1;
+	private String publishedName;
+	private boolean publishedEditing;
+	private Color[] fadeColors; //Background colour at every alpha, so fading makes no new colours.
+
 	public Game() {
+		this(System.nanoTime());
+	}
+
+	public Game(long seed) {
+		random = new SplittableRandom(seed);
+		instrumentation = Instrumentation.create();
+		tickTimes = new PhaseRecorder.Interval(instrumentation.getRecorder(Instrumentation.TICK));
+		frameTimes = new PhaseRecorder.Interval(instrumentation.getRecorder(Instrumentation.FRAME));
+		inputLatency = new PhaseRecorder.Interval(input.getLatency());
+		Graphics2D measure = Assets.compatible(1, 1).createGraphics();
+		rowMetrics = measure.getFontMetrics(ROWFONT);
+		measure.dispose();
+		fadeColors = new Color[256];
+		for(int i = 0; i < fadeColors.length; i++) fadeColors[i] = new Color(BACKGROUNDCOLOR.getRed(), BACKGROUNDCOLOR.getGreen(), BACKGROUNDCOLOR.getBlue(), i);
+
 		//Load all sprites needed for objects.
 		loadImages();
 
 		//Reads the high scores in from file.
 		loadScores();
 
-		//Resets the rocket, projectile and gameState.
+		//One handler per state.
+		screens = new Screen[GameState.values().length];
+		screens[GameState.MENU.ordinal()] = new MenuScreen();
+		screens[GameState.GAME.ordinal()] = new PlayScreen();
+		screens[GameState.GAME_OVER.ordinal()] = new GameOverScreen();
+		screens[GameState.SCORES.ordinal()] = new ScoresScreen();
+
+		//Resets the rocket and projectiles, and fades in on the menu.
+		snapshots = new SnapshotExchange();
 		reset();
-		gameState = "menu";
+		state = GameState.MENU;
+		transition = Transition.fadeIn(state);
+		publish();
 
 		//Create polygon objects for clickable buttons.
 		createButtonPolygons();
 
-		//Generate locations for stars
+		//Generate locations for stars and the cached layers they are drawn into.
+		menuBackground = new BackgroundLayer(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE, g -> {
+			paintStars(g);
+
+			//Earth for aesthetics and stuff.
+			g.drawImage(earthImg, CENTER - EARTHSIZE - 75, CENTER - EARTHSIZE / 2, null);
+		});
+		gameBackground = new BackgroundLayer(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE, this::paintStars);
 		placeStars();
+		frameReport = new PhaseRecorder.Interval(instrumentation.getRecorder(Instrumentation.FRAME));
 
         //Set listeners for the key presses and mouse clicks.
 		setFocusable(true); 
@@ -82,193 +166,227 @@ public class Game extends JPanel implements KeyListener, MouseListener{
 		addKeyListener(this);
 	}
 	
-	//Runs the game. Used for moving all objects during the game and transition screens.
-	public void start() throws InterruptedException {
-		while(true) {
-		    if(gameState.equals("game")) {
-                //If the game isn't paused.
-                if (!paused) {
-                    //Move the rockets.
-                    for (Rocket r : rockets) r.move();
-
-                    //Move the projectiles.
-                    for (Projectile p : projectiles) p.move();
-
-                    checkCollisions();
-
-                    //If rocket loses all health, return to main menu
-                    if (rockets.get(0).getHealth() <= 0) gameState = "game over";
-
-                    //Spawn a projectile every second.
-                    if (counter == SPAWNSPEED) {
-                        spawnProjectile();
-                        counter = 0;
-                        score++;
-
-                        //Spawn health
-						if(score % 50 == 0){
-							spawnHealth();
-						}
-
-                    } else {
-                        counter++;
-                    }
-                }
-            } else if(gameState.equals("game over")){
-		    	alpha += 2;
-		        if(alpha == 254){
-		            if(highscores.size() < 10 || score > highscores.get(0).score){
-		            	if(highscores.size() != 0) {
-		            		int size = highscores.size();
-							for (int i = 0; i < size; i++) {
-								if (highscores.get(i).score > score) {
-									highscores.add(i, new Highscore("", score));
-									break;
-								} else if(i == highscores.size() - 1){
-									highscores.add(new Highscore("", score));
-								}
-							}
-						} else{
-		            		highscores.add(new Highscore("", score));
-						}
-						gameState = "scores";
-		                newName = "";
-		                editing = true;
-                    }
-		            else {
-                        nextState = "menu";
-                        transitioningTo = false;
-                    }
-                } else {
-                    alpha += 2;
-                }
-            }
-            if (!transitioningTo){
-		    	alpha += 2;
-		    	if(alpha >= 254){
-		    		gameState = nextState;
-		    		transitioningTo = true;
-		    		alpha = 254;
-				}
-			}
-			else if(transitioningTo){
-				if(alpha > 0) {
-					alpha -= 2;
-				} else {
-					alpha = 0;
+	//Runs the game. Ticks the simulation at a fixed rate and repaints at the frame rate.
+	public void start() {
+		start(GameLoop.FRAMERATE);
+	}
+
+	public void start(int frameRate) {
+		loop = new GameLoop(this, frameRate, true);
+		loop.run();
+	}
+
+	//Switches to active rendering on a canvas. Input is taken from the canvas instead of this panel.
+	public void setCanvas(GameCanvas c) {
+		canvas = c;
+		canvas.addMouseListener(this);
+		canvas.addKeyListener(this);
+		canvas.requestFocus();
+	}
+
+	//Advances one fixed tick. Input from the event thread is applied first, then the current state updates and any fade moves on.
+	@Override
+	public void tick() {
+		//Apply input from the event thread here, between ticks, so the replay sees it on the same tick the simulation does.
+		input.drain(inputHandler);
+
+		screens[state.ordinal()].update();
+
+		//The next state takes over while the screen is covered.
+		Transition t = transition;
+		if(t != null) {
+			if(t.tick(FADESPEED * GameLoop.TICKSECONDS)) state = t.getTarget();
+			if(t.isDone() && transition == t) transition = null;
+		}
+
+		publish();
+	}
+
+	//Applies one event from the input queue. Runs on the loop thread before the tick, so nothing the
+	//listeners do can change the game part way through a tick.
+	private void applyInput(int type, int code, int x, int y) {
+		Screen screen = screens[state.ordinal()];
+		if(type == InputQueue.MOUSERELEASED) {
+			screen.mouseReleased(x, y, code);
+		} else if(type == InputQueue.KEYPRESSED) {
+			screen.keyPressed(code, (char) x);
+		} else if(code == 32) { //Spacebar pauses anywhere.
+			paused = !paused;
+			if(state == GameState.GAME) replay.record(simulation.getTicks(), Replay.PAUSE, 0);
+		} else if(code == OVERLAYKEY) {
+			overlay = !overlay;
+			damage.add(OVERLAYBOUNDS.x, OVERLAYBOUNDS.y, OVERLAYBOUNDS.width, OVERLAYBOUNDS.height);
+		} else {
+			screen.keyReleased(code);
+		}
+	}
+
+	//Changes the direction of a locally steered rocket.
+	private void steer(int player) {
+		if(player < rocketCount) simulation.changeDirection(player);
+	}
+
+	//Fades out of the current screen and into another. The action, if any, runs once the screen is covered.
+	private void fadeTo(GameState target, Runnable action) {
+		transition = new Transition(target, action);
+	}
+
+	//Every rocket is gone. Fades out to the scores screen if the score is shown there, otherwise to the menu.
+	private void endGame() {
+		state = GameState.GAME_OVER;
+		saveReplay();
+		int score = simulation.getScore();
+		if(highscores.qualifies(score) && highscores.rank(score) <= SHOWNSCORES) {
+			fadeTo(GameState.SCORES, () -> {
+				newHighscore = highscores.add("", score);
+				newName = "";
+				editing = true;
+			});
+		} else {
+			fadeTo(GameState.MENU, () -> {
+				//Scores kept past the ones shown are recorded without asking for a name.
+				if(highscores.qualifies(score)) {
+					highscores.add("", score);
+					saveScores();
 				}
-			}
+			});
+		}
+	}
 
-			//Redraw everything
-			repaint();
-	
-			//Wait .01 seconds.
-			Thread.sleep(10);
+	//Copies the state of the tick that just finished for the renderer, and marks what it changed as damaged.
+	void publish() {
+		Snapshot s = snapshots.getBack();
+		Transition t = transition;
+		Screen screen = screens[state.ordinal()];
+		s.state = state;
+		s.alpha = t != null ? t.getAlpha() : 0;
+		s.paused = paused;
+		screen.capture(s);
+
+		//A new screen or a step of a fade changes everything.
+		if(state != publishedState || s.alpha != publishedAlpha) tickDamage.addAll();
+		publishedState = state;
+		publishedAlpha = s.alpha;
+		snapshots.publish();
+
+		//Only once the snapshot is out, or the renderer could take the damage and draw the snapshot before it.
+		still = screen.isStill();
+		tickDamage.moveTo(damage);
+	}
+
+	//Skips the menu and fade and drops straight into a fresh game. Used by benchmarks.
+	void play() {
+		reset();
+		play(simulation);
+	}
+
+	//Same, but with a world set up elsewhere. Used by the stress test.
+	void play(Simulation s) {
+		simulation = s;
+		state = GameState.GAME;
+		transition = null;
+		publish();
+	}
+
+	Simulation getSimulation() {
+		return simulation;
+	}
+
+	//Called by the loop at the frame rate. Draws straight to the canvas if there is one,
+	//otherwise Swing coalesces the repaint onto the EDT.
+	//Screens that move are drawn whole every frame. Still ones are only drawn where something changed, if at all.
+	@Override
+	public void render(double interpolation) {
+		this.interpolation = interpolation;
+		if(overlay && System.nanoTime() - overlayUpdated >= 1000000000L) {
+			damage.add(OVERLAYBOUNDS.x, OVERLAYBOUNDS.y, OVERLAYBOUNDS.width, OVERLAYBOUNDS.height); //Due for new numbers.
 		}
-		
+		if(canvas != null && canvas.takeExposed()) damage.addAll();
+		boolean damaged = damage.take(dirty);
+		if(!still) dirty.setBounds(0, 0, Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE);
+		else if(!damaged) return;
+
+		if(canvas != null) canvas.render(this, dirty);
+		else repaint(dirty.x, dirty.y, dirty.width, dirty.height);
 	}
 
 	//Loads top scores from file.
 	private void loadScores(){
-		highscores = new ArrayList<Highscore>();
-        try{
-            BufferedReader inputStream = new BufferedReader(new FileReader("highscores.dat"));
-            String line;
-            while((line = inputStream.readLine()) != null){
-                String[] lineSplit = line.split(", ");
-                int inScore = Integer.parseInt(lineSplit[1]);
-                highscores.add(new Highscore(lineSplit[0], inScore));
-            }
-        } catch(FileNotFoundException e){
-			System.out.println("Could not find highscores file.");
-        } catch (IOException e) {
-			e.printStackTrace();
+		highscoreStore = new HighscoreStore(SCORESFILE, LEGACYSCORESFILE);
+		highscores = new Leaderboard(KEPTSCORES);
+		try {
+			//Saved lowest first, so adding them in order keeps tied scores in the same order.
+			for(Highscore hs : highscoreStore.load()) highscores.add(hs.name, hs.score);
+		} catch (IOException e) {
+			System.out.println("Could not read high scores: " + e.getMessage());
 		}
+		scoreWriter = new ScoreWriter(highscoreStore);
 	}
 
-	//Saves scores to file.
+	//Queues the scores to be saved. The file is written on the score writer's thread.
 	private void saveScores(){
+		scoreWriter.submit(highscores.toList());
+	}
+
+	//Gives the new high score the name that was typed and saves it.
+	private void nameHighscore(){
+		if(newHighscore != null) {
+			newHighscore.name = newName;
+			newHighscore = null;
+		}
+		saveScores();
+	}
+
+	//Called on the way out. Waits for queued scores to reach the disk.
+	public void shutdown() {
 		try {
-			//Open highscores.dat as location to save scores.
-			BufferedWriter outputStream = new BufferedWriter(new FileWriter("highscores.dat"));
-
-			//Iterate over the highscores
-			for (Highscore hs : highscores) {
-				//Write the name associated with each score as well as the score.
-				String highscoreString = hs.name + ", " + Integer.toString(hs.score) + "\n";
-				outputStream.write(highscoreString);
-			}
-			outputStream.close();
-		} catch(Exception e){
-			System.out.println("Could not find file. Scores were not saved.");
+			scoreWriter.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
+		if(scoreWriter.getSubmitted() > 0) System.out.println(scoreWriter.report());
 	}
 
-	//Places a health object randomly on the rocket path.
-	private void spawnHealth() {
-		Random r = new Random();
-		double angle = Math.toRadians(r.nextInt(360));
-		health.add(new Point((int) (CENTER + RADIUS * Math.cos(angle)), (int) (CENTER + RADIUS * Math.sin(angle))));
+	ScoreWriter getScoreWriter() {
+		return scoreWriter;
 	}
 
-	//Resets the rocket, projectile and gameState.
-	public void reset(){
-        //Initialize the rockets.
-        rockets = new ArrayList<Rocket>();
-        rockets.add(new Rocket(RADIUS, 0, 1, 1));
+	//Saves every finished session's inputs if a replay file was given.
+	public void setReplayFile(String file) {
+		replayFile = file != null ? Paths.get(file) : null;
+	}
 
-        health = new ArrayList<Point>();
+	private void saveReplay() {
+		replay.finish(simulation);
+		if(replayFile == null) return;
+		try {
+			replay.save(replayFile);
+		} catch (IOException e) {
+			System.out.println("Could not save replay: " + e.getMessage());
+		}
+	}
 
-        //Initialize the arraylist for current projectiles.
-        projectiles = new ArrayList<Projectile>();
+	//Sessions from the next reset on have this many rockets, the first players of them steered locally.
+	public void setRockets(int rockets, int players) {
+		rocketCount = Math.max(1, rockets);
+		this.players = Math.max(0, Math.min(players, Math.min(MAXPLAYERS, rocketCount)));
+	}
 
-        counter = -200;
+	//Resets the rocket and projectiles.
+	public void reset(){
+        //Start a new world for the rockets and projectiles.
+        long seed = random.nextLong();
+        simulation = new Simulation(seed, true, Difficulty.DEFAULT, rocketCount);
+        replay = new Replay(seed, rocketCount);
+        bots = new Bot[Math.max(0, rocketCount - players)];
+        for(int i = 0; i < bots.length; i++) bots[i] = new Bot(players + i, 40, 12);
+        simulation.setRecorder(replay);
+        simulation.setInstrumentation(instrumentation);
 
-        //Set the game state to the main menu
         paused = false;
         editing = false;
-        score = 0;
-
-		//Fade in value
-        alpha = 254;
-        transitioningTo = true;
     }
 
-    //Check to see whether the the rocket has collided with a health object or projectile.
-	//Also removes projectiles that have gone off screen.
-	private void checkCollisions() {
-		Set<Projectile> removedProjectiles = new HashSet<Projectile>(); //Create set of projectiles that will be removed.
-		Set<Point> removedHealth = new HashSet<Point>(); //Create set of health packs that will be removed.
-
-		for(Rocket r : rockets) {
-			Polygon rocketHitbox = createRocketPolygon(r); //Creates polygon representing the hitbox for the rocket.
-
-			for(Projectile p : projectiles) {
-				//rocket collides with projectile, take damage.
-				if(rocketHitbox.contains(CENTER + p.getX(), CENTER + p.getY())) {
-					removedProjectiles.add(p); //Add projectile to the set that will be removed.
-					r.takeDamage(25);
-				}
-				
-				//If the projectile goes off screen.
-				if(p.getX() < -1 * Orbiter.WINDOWSIZE || p.getX() > Orbiter.WINDOWSIZE || p.getY() < -1 * Orbiter.WINDOWSIZE || p.getY() > Orbiter.WINDOWSIZE) {
-					removedProjectiles.add(p); //Add projectile to the set that will be removed.
-				}
-			}
-
-			//If rocket takes health, heal rocket.
-			for(Point p : health){
-				if(rocketHitbox.contains(p)){
-					removedHealth.add(p); //Add health pack to the set that will be removed.
-					r.takeDamage(-10); //Heal rocket.
-				}
-			}
-			
-		}
-		for(Projectile p : removedProjectiles) projectiles.remove(p); //remove projectiles from list.
-		for(Point p : removedHealth) health.remove(p); //remove taken health from list.
-	}
-
 	//Creates polygon objects for each button.
 	private void createButtonPolygons(){
         //Boundaries for start button on menu.
@@ -296,367 +414,480 @@ public class Game extends JPanel implements KeyListener, MouseListener{
 		int exitGameButtonYPos[] = {Orbiter.WINDOWSIZE - 72, Orbiter.WINDOWSIZE - 72, Orbiter.WINDOWSIZE - 32, Orbiter.WINDOWSIZE - 32};
 		exitGameButtonPoly = new Polygon(exitGameButtonXPos, exitGameButtonYPos, 4);    }
 
-    //Create hitbox for rocket
-	private Polygon createRocketPolygon(Rocket r) {
-		int[] xpoints = new int[4];
-		int[] ypoints = new int[4];
-		
-		//Set the starting points for rocket hitbox.
-		xpoints[0] = (int) (r.radius1 * Math.cos(r.angle1 + Math.toRadians(r.getAngle())));
-		ypoints[0] = (int) (r.radius1 * Math.sin(r.angle1 + Math.toRadians(r.getAngle())));
-		xpoints[1] = (int) (r.radius2 * Math.cos(r.angle2 + Math.toRadians(r.getAngle())));
-		ypoints[1] = (int) (r.radius2 * Math.sin(r.angle2 + Math.toRadians(r.getAngle())));
-		xpoints[2] = (int) (r.radius3 * Math.cos(r.angle3 + Math.toRadians(r.getAngle())));
-		ypoints[2] = (int) (r.radius3 * Math.sin(r.angle3 + Math.toRadians(r.getAngle())));
-		xpoints[3] = (int) (r.radius4 * Math.cos(r.angle4 + Math.toRadians(r.getAngle())));
-		ypoints[3] = (int) (r.radius4 * Math.sin(r.angle4 + Math.toRadians(r.getAngle())));
-		
-		for(int i = 0; i < 4; i++) {
-			xpoints[i] += CENTER;
-			ypoints[i] += CENTER;
-		}
-
-		return new Polygon(xpoints, ypoints, 4);
-	}
-
 	//Places stars randomly in the background.
 	private void placeStars(){
 	    int rowSize = Orbiter.WINDOWSIZE / STARSPACING;
         starLocations = new Point[rowSize][rowSize];
-        Random r = new Random();
+        SplittableRandom r = random.split();
 	    for (int i = 0; i < rowSize; i++){
 	        for(int j = 0; j < rowSize; j++){
                 starLocations[i][j] = new Point(i * STARSPACING + r.nextInt(STARSPACING - 8), j * STARSPACING + r.nextInt(STARSPACING - 8));
             }
         }
+        menuBackground.invalidate();
+        gameBackground.invalidate();
     }
 
-    //Spawns projectiles that move in a random direction.
-	private void spawnProjectile() {
-		Random r = new Random();
-		projectiles.add(new Projectile(2.5 + 2.5 * (1 -  1 / (1 + score / 200.)) * (2 * r.nextFloat() - 1), r.nextInt(360)));
+	//Fills the background and draws the stars.
+	private void paintStars(Graphics g) {
+        //Background color
+        g.setColor(BACKGROUNDCOLOR);
+        g.fillRect(0, 0, Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE);
+
+        //Draw Stars
+        for(int i = 0; i < starLocations.length; i++){
+            for(int j = 0; j < starLocations.length; j++){
+                g.drawImage(starImg, starLocations[i][j].x, starLocations[i][j].y, null);
+            }
+        }
 	}
 
-	//Loads all images used in the project.
+	//Loads all images used in the project, each converted to the screen's format at the size it is drawn.
 	private void loadImages() {
-		  try {
-			  rocketImg = ImageIO.read(getClass().getResourceAsStream("img/rocket.png"));
-		  } catch (IOException e) {
-			  rocketImg = null;
-			  e.printStackTrace();
-		  }
-		  try {
-			  earthImg = ImageIO.read(getClass().getResourceAsStream("img/earth.png"));
-		  } catch (IOException e) {
-			  earthImg = null;
-			  e.printStackTrace();
-		  }
-		  
-		  try {
-			  rocketReverseImg = ImageIO.read(getClass().getResourceAsStream("img/rocketReverse.png"));
-		  } catch (IOException e) {
-			  rocketReverseImg = null;
-			  e.printStackTrace();
-		  }
-		  
-		  try {
-			  projectileImg = ImageIO.read(getClass().getResourceAsStream("img/projectile.png"));
-		  } catch (IOException e) {
-			  projectileImg = null;
-			  e.printStackTrace();
-		  }
-		  
-		  try {
-			  pausedButtonImg = ImageIO.read(getClass().getResourceAsStream("img/pausedButton.png"));
-		  } catch (IOException e) {
-			  pausedButtonImg = null;
-			  e.printStackTrace();
-		  }
+		rocketImg = Assets.load("img/rocket.png", ROCKETSIZE, ROCKETSIZE);
+		rocketReverseImg = Assets.load("img/rocketReverse.png", ROCKETSIZE, ROCKETSIZE);
+		earthImg = Assets.load("img/earth.png", EARTHSIZE, EARTHSIZE);
+		projectileImg = Assets.load("img/projectile.png", PROJECTILESIZE, PROJECTILESIZE);
+		pausedButtonImg = Assets.load("img/pausedButton.png", 128, 128);
+		startButtonImg = Assets.load("img/startButton.png", 128, 128);
+		scoresButtonImg = Assets.load("img/scoresButton.png", 128, 128);
+		backButtonImg = Assets.load("img/backButton.png", 128, 128);
+		exitButtonImg = Assets.load("img/exitButton.png", 128, 128);
+		starImg = Assets.load("img/star.png", 8, 8);
+		healthImg = Assets.load("img/health.png", 24, 24);
+		titleImg = Assets.load("img/title.png", 512, 128);
+
+		//Rockets are only ever drawn rotated, so rotate them once here instead of every frame.
+		rocketRotations = Assets.rotations(rocketImg, ROTATIONSTEPS);
+		rocketReverseRotations = Assets.rotations(rocketReverseImg, ROTATIONSTEPS);
+		rotationSize = rocketImg != null ? Assets.rotatedSize(rocketImg) : ROCKETSIZE;
+	}
 
-		try {
-			startButtonImg = ImageIO.read(getClass().getResourceAsStream("img/startButton.png"));
-		} catch (IOException e) {
-			startButtonImg = null;
-			e.printStackTrace();
-		}
+	//Passive rendering, called by Swing after repaint().
+	public void paintComponent(Graphics g) {
+		draw(g);
+	}
 
-		try {
-			scoresButtonImg = ImageIO.read(getClass().getResourceAsStream("img/scoresButton.png"));
-		} catch (IOException e) {
-			scoresButtonImg = null;
-			e.printStackTrace();
+	//Draws the latest snapshot to the window. Never reads the live game state.
+	public void draw(Graphics g) {
+		Snapshot s = snapshots.latest();
+		Screen screen = screens[s.state.ordinal()];
+
+		//Positions are drawn between the last two ticks unless the simulation is standing still.
+		double t = s.paused ? 1 : interpolation;
+		long frameStart = System.nanoTime();
+		screen.renderBackground(g, s);
+		long background = System.nanoTime();
+		screen.renderEntities(g, s, t);
+		long entities = System.nanoTime();
+		screen.renderHud(g, s);
+
+		//Fade in and out. Nothing to cover once the fade is over.
+		int alpha = (int) Math.max(0, Math.min(255, s.alpha));
+		if(alpha > 0) {
+			g.setColor(fadeColors[alpha]);
+			g.fillRect(0,0, Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE);
 		}
+		instrumentation.frame(frameStart, background, entities, System.nanoTime());
+		if(overlay) paintOverlay(g, s);
+		if(FRAMETIMEREPORT && ++reportFrames == REPORTFRAMES) reportFrameTimes();
+	}
 
-		try {
-			backButtonImg = ImageIO.read(getClass().getResourceAsStream("img/backButton.png"));
-		} catch (IOException e) {
-			backButtonImg = null;
-			e.printStackTrace();
-		}
+	//Prints the frame times recorded since the last report.
+	private void reportFrameTimes() {
+		frameReport.update();
+		System.out.println(String.format("%s: p50 %.3f ms, p99 %.3f ms, max %.3f ms over %d frames",
+				CACHEBACKGROUND ? "frame (cached background)" : "frame", frameReport.percentile(50) / 1e6,
+				frameReport.percentile(99) / 1e6, frameReport.percentile(100) / 1e6, frameReport.getCount()));
+		reportFrames = 0;
+	}
 
-		try {
-			exitButtonImg = ImageIO.read(getClass().getResourceAsStream("img/exitButton.png"));
-		} catch (IOException e) {
-			exitButtonImg = null;
-			e.printStackTrace();
+	//Stars behind everything but the menu. The cached layer unless that is turned off for comparison.
+	private void paintGameBackground(Graphics g) {
+		if(CACHEBACKGROUND) gameBackground.draw(g);
+		else paintStars(g);
+	}
+
+	//FPS, recent tick and frame times and entity counts in the top right corner.
+	private void paintOverlay(Graphics g, Snapshot s) {
+		//Percentiles cover the last second, refreshed once a second so they can be read.
+		long now = System.nanoTime();
+		if(now - overlayUpdated >= 1000000000L) {
+			tickTimes.update();
+			frameTimes.update();
+			inputLatency.update();
+			overlayUpdated = now;
 		}
 
-        try {
-            starImg = ImageIO.read(getClass().getResourceAsStream("img/star.png"));
-        } catch (IOException e) {
-            starImg = null;
-            e.printStackTrace();
-        }
+		int x = OVERLAYBOUNDS.x + 8;
+		g.setColor(new Color(0, 0, 0, 160));
+		g.fillRect(OVERLAYBOUNDS.x, OVERLAYBOUNDS.y, OVERLAYBOUNDS.width, OVERLAYBOUNDS.height);
+		g.setColor(Color.GREEN);
+		g.setFont(OVERLAYFONT);
+		g.drawString(String.format("FPS %.1f", instrumentation.getFps()), x, 24);
+		g.drawString(String.format("tick  p50 %.3f p99 %.3f ms", tickTimes.percentile(50) / 1e6, tickTimes.percentile(99) / 1e6), x, 40);
+		g.drawString(String.format("frame p50 %.3f p99 %.3f ms", frameTimes.percentile(50) / 1e6, frameTimes.percentile(99) / 1e6), x, 56);
+		g.drawString("projectiles " + s.projectileCount + " health " + s.healthCount, x, 72);
+		g.drawString("rockets " + s.rocketCount + (instrumentation.hasSink() ? "  jfr events on" : ""), x, 88);
+		g.drawString(String.format("input p99 %.3f ms dropped %d", inputLatency.percentile(99) / 1e6, input.getDropped()), x, 104);
+		GameLoop l = loop;
+		if(l != null) g.drawString("ticks late " + l.getLateTicks() + " dropped " + l.getDroppedTicks(), x, 120);
+	}
 
-		try {
-			healthImg = ImageIO.read(getClass().getResourceAsStream("img/health.png"));
-		} catch (IOException e) {
-			healthImg = null;
-			e.printStackTrace();
-		}
+	Instrumentation getInstrumentation() {
+		return instrumentation;
+	}
 
-		try {
-			titleImg = ImageIO.read(getClass().getResourceAsStream("img/title.png"));
-		} catch (IOException e) {
-			titleImg = null;
-			e.printStackTrace();
+	//Not used, but necessary for compiling.
+	@Override 
+	public void mouseClicked(MouseEvent arg0) {
+		
+		
+	}
+
+	//Not used, but necessary for compiling.
+	@Override
+	public void mouseEntered(MouseEvent arg0) {
+
+	}
+
+	//Not used, but necessary for compiling.
+	@Override
+	public void mouseExited(MouseEvent arg0) {
+
+	}
+
+	//Not used, but necessary for compiling.
+	@Override
+	public void mousePressed(MouseEvent arg0) {
+		
+	}
+
+	//Called on mouse click. Queued for the next tick, which hands it to the current state.
+	@Override
+	public void mouseReleased(MouseEvent arg0) {
+		input.push(InputQueue.MOUSERELEASED, arg0.getButton(), arg0.getX(), arg0.getY());
+	}
+
+	//Used to type name when a new high score is entered. Queued for the next tick.
+	@Override
+	public void keyPressed(KeyEvent arg0) {
+		input.push(InputQueue.KEYPRESSED, arg0.getKeyCode(), arg0.getKeyChar(), 0);
+	}
+
+	//Used to pause, steer and show the overlay. Queued for the next tick.
+	@Override
+	public void keyReleased(KeyEvent arg0) {
+		input.push(InputQueue.KEYRELEASED, arg0.getKeyCode(), 0, 0);
+	}
+
+	//Not used but necessary for compiling.
+	@Override
+	public void keyTyped(KeyEvent arg0) {
+
+	}
+
+	//What the game does on one state. There is one for each state, looked up by ordinal, so nothing compares states each frame.
+	//update, capture and the input methods run on the loop thread, input as the queue is drained before each tick.
+	//The render methods run on the render thread and only read the snapshot.
+	private interface Screen {
+		//One tick.
+		default void update() {}
+
+		//Copies what this state draws into the snapshot.
+		default void capture(Snapshot s) {}
+
+		//Whether nothing on this screen moves, so it only needs drawing where it was damaged.
+		default boolean isStill() {
+			return false;
 		}
 
+		void renderBackground(Graphics g, Snapshot s);
+
+		//Things that move. Interpolation is how far between the last two ticks to draw them.
+		default void renderEntities(Graphics g, Snapshot s, double interpolation) {}
+
+		//Buttons and text on top.
+		void renderHud(Graphics g, Snapshot s);
+
+		default void mouseReleased(int x, int y, int button) {}
+
+		default void keyPressed(int code, char c) {}
+
+		default void keyReleased(int code) {}
 	}
 
-	//Draws objects to the window.
-	public void paintComponent(Graphics g) {
-        //Background color
-        g.setColor(BACKGROUNDCOLOR);
-        g.fillRect(0, 0, Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE);
+	//Title and the start, scores and exit buttons.
+	private class MenuScreen implements Screen {
+		@Override
+		public boolean isStill() {
+			return true;
+		}
 
-        //Draw Stars
-        for(int i = 0; i < starLocations.length; i++){
-            for(int j = 0; j < starLocations.length; j++){
-                g.drawImage(starImg, starLocations[i][j].x, starLocations[i][j].y, 8, 8, null);
-            }
-        }
+		@Override
+		public void renderBackground(Graphics g, Snapshot s) {
+			//Static background including the earth.
+			if(CACHEBACKGROUND) {
+				menuBackground.draw(g);
+			} else {
+				paintStars(g);
+				g.drawImage(earthImg, CENTER - EARTHSIZE - 75, CENTER - EARTHSIZE / 2, null);
+			}
+		}
 
-        //If at the menu.
-		if(gameState.equals("menu")) {
+		@Override
+		public void renderHud(Graphics g, Snapshot s) {
 			//Draw start button
-			g.drawImage(startButtonImg, CENTER + 36, CENTER - 89,128,128, null);
+			g.drawImage(startButtonImg, CENTER + 36, CENTER - 89, null);
 
 			//Draw scores button
-			g.drawImage(scoresButtonImg, CENTER + 36, CENTER - 39, 128, 128, null);
+			g.drawImage(scoresButtonImg, CENTER + 36, CENTER - 39, null);
 
 			//Draw exit button
-			g.drawImage(exitButtonImg, CENTER + 36, CENTER + 12, 128, 128, null);
-
-			//Earth for aesthetics and stuff.
-			g.drawImage(earthImg, CENTER - EARTHSIZE - 75, CENTER - EARTHSIZE / 2, EARTHSIZE, EARTHSIZE, null);
+			g.drawImage(exitButtonImg, CENTER + 36, CENTER + 12, null);
 
 			//Title "Orbiter"
-			g.drawImage(titleImg, (Orbiter.WINDOWSIZE - 532) / 2, 20, 512, 128, null);
+			g.drawImage(titleImg, (Orbiter.WINDOWSIZE - 532) / 2, 20, null);
+		}
+
+		@Override
+		public void mouseReleased(int x, int y, int button) {
+			//If you click on start button, start game.
+			if(startButtonPoly.contains(x, y)) {
+				reset();
+				fadeTo(GameState.GAME, null);
+			}
+			//If you click the exit button, quit.
+			else if(exitButtonPoly.contains(x, y)) {
+				System.exit(0);
+			}
+			//If you click on scores button, display highscores.
+			else if(scoresButtonPoly.contains(x, y)) {
+				fadeTo(GameState.SCORES, null);
+			}
+		}
+	}
+
+	//Playing the game.
+	private class PlayScreen implements Screen {
+		@Override
+		public void update() {
+			if(paused) return;
+			for(Bot bot : bots) bot.act(simulation);
+			simulation.tick();
+
+			//If every rocket loses all health, leave the game.
+			if(simulation.isOver()) endGame();
+		}
 
+		@Override
+		public void capture(Snapshot s) {
+			s.capture(simulation);
 		}
-		//If playing the game.
-		else if(gameState.equals("game") || gameState.equals("game over")) {
 
-            //Draw health packs
-			for(Point p : health) {
-				g.drawImage(healthImg, p.x - 12, p.y - 12, 24, 24, null);
+		@Override
+		public void renderBackground(Graphics g, Snapshot s) {
+			paintGameBackground(g);
+		}
+
+		@Override
+		public void renderEntities(Graphics g, Snapshot s, double t) {
+			//Draw health packs
+			for(int i = 0; i < s.healthCount; i++) {
+				g.drawImage(healthImg, CENTER + s.healthX[i] - 12, CENTER + s.healthY[i] - 12, null);
 			}
 
 			//Draw projectiles
-			for(Projectile p : projectiles) {
-				g.drawImage(projectileImg, CENTER + p.getX() - PROJECTILESIZE / 2, CENTER + p.getY() - PROJECTILESIZE / 2, PROJECTILESIZE, PROJECTILESIZE, null);
+			for(int i = 0; i < s.projectileCount; i++) {
+				int x = CENTER + (int) (s.projectilePreviousX[i] + (s.projectileX[i] - s.projectilePreviousX[i]) * t);
+				int y = CENTER + (int) (s.projectilePreviousY[i] + (s.projectileY[i] - s.projectilePreviousY[i]) * t);
+				g.drawImage(projectileImg, x - PROJECTILESIZE / 2, y - PROJECTILESIZE / 2, null);
 			}
 
-
-			//Draw Earth
-			g.drawImage(earthImg, CENTER - EARTHSIZE / 2, CENTER - EARTHSIZE / 2, EARTHSIZE, EARTHSIZE, null);
-
-			//draw rockets
-			Graphics2D g2d=(Graphics2D)g; // Create a Java2D version of g.
-			for(Rocket r : rockets) {
-				int x = CENTER + r.getX();
-				int y = CENTER + r.getY();
-				g2d.rotate(Math.toRadians(r.getAngle() + 90), x, y);  // Rotate the image.
-				if (r.getDirection() == 1) g2d.drawImage(rocketImg, x - ROCKETSIZE / 2, y - ROCKETSIZE / 2, ROCKETSIZE, ROCKETSIZE, null);
-				else g2d.drawImage(rocketReverseImg, x - ROCKETSIZE / 2, y - ROCKETSIZE / 2, ROCKETSIZE, ROCKETSIZE, null);
-				g2d.rotate(Math.toRadians(-(r.getAngle() + 90)), x, y);  // Rotate the image.
+			//Draw Earth. Not part of the cached background so projectiles stay hidden under it as they launch.
+			g.drawImage(earthImg, CENTER - EARTHSIZE / 2, CENTER - EARTHSIZE / 2, null);
+
+			//draw rockets, picking the pre-rotated image closest to each rocket's angle.
+			for(int i = 0; i < s.rocketCount; i++) {
+				if(s.rocketHealth[i] <= 0) continue;
+				double angle = s.rocketPreviousAngle[i] + (s.rocketAngle[i] - s.rocketPreviousAngle[i]) * t;
+				int x = CENTER + (int) (s.rocketRadius[i] * FastMath.cosDegrees(angle));
+				int y = CENTER + (int) (s.rocketRadius[i] * FastMath.sinDegrees(angle));
+				int step = Assets.rotationStep(angle + 90, ROTATIONSTEPS);
+				if (s.rocketDirection[i] == 1) g.drawImage(rocketRotations[step], x - rotationSize / 2, y - rotationSize / 2, null);
+				else g.drawImage(rocketReverseRotations[step], x - rotationSize / 2, y - rotationSize / 2, null);
 			}
+		}
 
+		@Override
+		public void renderHud(Graphics g, Snapshot s) {
 			//Pause button
-			if(paused) {
+			if(s.paused) {
 				//Draw paused box
-				g.drawImage(pausedButtonImg, CENTER - 64, CENTER - 64, 128, 128, null);
+				g.drawImage(pausedButtonImg, CENTER - 64, CENTER - 64, null);
 
 				//Draw exit button
-				g.drawImage(exitButtonImg, exitGameButtonPoly.xpoints[0], exitGameButtonPoly.ypoints[0] - 45, 128, 128, null);
-
+				g.drawImage(exitButtonImg, exitGameButtonPoly.xpoints[0], exitGameButtonPoly.ypoints[0] - 45, null);
 			}
 
-            //Missing health bar
-			g.setColor(Color.RED);
-			g.fillRect(25, 25, 100, 25);
+			//Health bars, one per rocket, or a count of rockets left when there are too many to list.
+			if(s.rocketCount <= HEALTHBARS) {
+				for(int i = 0; i < s.rocketCount; i++) {
+					//Missing health bar
+					g.setColor(Color.RED);
+					g.fillRect(25, 25 + 30 * i, 100, 25);
 
-			//Remaining health bar
-			g.setColor(Color.GREEN);
-			g.fillRect(25, 25, rockets.get(0).getHealth(), 25);
+					//Remaining health bar
+					g.setColor(Color.GREEN);
+					g.fillRect(25, 25 + 30 * i, s.rocketHealth[i], 25);
+				}
+			} else {
+				int alive = 0;
+				for(int i = 0; i < s.rocketCount; i++) if(s.rocketHealth[i] > 0) alive++;
+				g.setColor(Color.WHITE);
+				g.setFont(HUDFONT);
+				g.drawString("ROCKETS: " + alive + " / " + s.rocketCount, 25, 45);
+			}
 
 			//Score display
 			g.setColor(Color.WHITE);
-			String scoreString = "SCORE: " + Integer.toString(score);
-			g.setFont(new Font("Arial", Font.PLAIN, 20));
-            FontMetrics fm = g.getFontMetrics();
+			String scoreString = "SCORE: " + Integer.toString(s.score);
+			g.setFont(HUDFONT);
+			FontMetrics fm = g.getFontMetrics();
 			g.drawString(scoreString, (Orbiter.WINDOWSIZE - fm.stringWidth(scoreString)) / 2, fm.getHeight());
-
 		}
-		//If viewing or creating a new highscore.
-		else if(gameState.equals("scores")){
-        	g.setColor(Color.WHITE);
-			g.setFont(new Font("Arial", Font.BOLD, 30));
-			if(editing){
-				g.drawString("NEW HIGH SCORE:", 40, 40);
-				if(highscores.size() > 10) highscores.remove(0);
-			} else {
-				g.drawString("HIGH SCORES", 40, 40);
+
+		@Override
+		public void mouseReleased(int x, int y, int button) {
+			if(!paused) {
+				//Change the direction of the rocket on click. The right button steers the second player's rocket.
+				if (button == MouseEvent.BUTTON1) steer(0);
+				else if (button == MouseEvent.BUTTON3 && players > 1) steer(1);
+			} else if(exitGameButtonPoly.contains(x, y)) {
+				fadeTo(GameState.MENU, null);
 			}
-			g.setFont((new Font("Arial", Font.BOLD, 28)));
-			for(int i = highscores.size() - 1; i >= 0; i--) {
-                String number = Integer.toString(highscores.size() - i);
-                if(!number.equals("10")) number = "  " + number; //Add space before single digit numbers
-                String score = Integer.toString(highscores.get(i).score);
-                String name = highscores.get(i).name;
-                if (!editing) {
-                    g.drawString(number + ". " + name + " - " + score, 100, (highscores.size() - i + 1) * 45);
-                } else {
-                    if (name == "") {
-                        g.setColor(Color.YELLOW);
-                        g.drawString(number + ". " + newName + " - " + score, 100, (highscores.size() - i + 1) * 45);
-                        g.setColor(Color.WHITE);
-                    } else {
-                        g.drawString(number + ". " + name + " - " + score, 100, (highscores.size() - i + 1) * 45);
-                    }
-                }
-            }
+		}
 
-			g.drawImage(backButtonImg, backButtonPoly.xpoints[0], backButtonPoly.ypoints[0] - 45, 128, 128, null);
-        }
-		//Fade in and out.
-		g.setColor(new Color(BACKGROUNDCOLOR.getRed(), BACKGROUNDCOLOR.getGreen(), BACKGROUNDCOLOR.getBlue(), alpha));
-		g.fillRect(0,0, Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE);
+		@Override
+		public void keyReleased(int code) {
+			if(paused) return;
+			if(code == KeyEvent.VK_A) steer(0);
+			else if(code == KeyEvent.VK_L && players > 1) steer(1);
+		}
 	}
 
-	//Not used, but necessary for compiling.
-	@Override 
-	public void mouseClicked(MouseEvent arg0) {
-		
-		
-	}
+	//The finished game stays on screen while it fades out. Nothing moves and input is ignored.
+	private class GameOverScreen extends PlayScreen {
+		@Override
+		public void update() {}
 
-	//Not used, but necessary for compiling.
-	@Override
-	public void mouseEntered(MouseEvent arg0) {
+		@Override
+		public void mouseReleased(int x, int y, int button) {}
 
+		@Override
+		public void keyReleased(int code) {}
 	}
 
-	//Not used, but necessary for compiling.
-	@Override
-	public void mouseExited(MouseEvent arg0) {
-
-	}
+	//High score table. After a good game the new score's name is typed here.
+	//Rows are drawn from images made when their text changes, so an idle table lays out no text at all.
+	private class ScoresScreen implements Screen {
+		private BufferedImage[] rowImages = new BufferedImage[SHOWNSCORES + 1]; //Each row's text, by row number. Render thread only.
+		private String[] rowNames = new String[SHOWNSCORES + 1]; //What each image shows.
+		private int[] rowScores = new int[SHOWNSCORES + 1];
+		private boolean[] rowHighlighted = new boolean[SHOWNSCORES + 1];
+
+		@Override
+		public boolean isStill() {
+			return true;
+		}
 
-	//Not used, but necessary for compiling.
-	@Override
-	public void mousePressed(MouseEvent arg0) {
-		
-	}
+		@Override
+		public void capture(Snapshot s) {
+			s.captureHighscores(highscores, SHOWNSCORES);
+			s.editing = editing;
+			s.newName = newName;
+
+			//Starting or finishing a name changes the heading and the rows. Typing only changes the row being named.
+			if(editing != publishedEditing) {
+				tickDamage.addAll();
+			} else if(editing && !newName.equals(publishedName)) {
+				for(int i = 0; i < s.highscoreCount; i++) {
+					int top = (s.highscoreCount - i + 1) * ROWSPACING - rowMetrics.getAscent();
+					if(s.highscoreNames[i].equals("")) tickDamage.add(100, top, Orbiter.WINDOWSIZE - 100, rowMetrics.getAscent() + rowMetrics.getDescent());
+				}
+			}
+			publishedName = newName;
+			publishedEditing = editing;
+		}
 
-	//Called on mouse click. Used for checking if a button was clicked or changing the direction of the rocket.
-	@Override
-	public void mouseReleased(MouseEvent arg0) {
-	    if(gameState.equals("menu")){ //While on menu.
-            //If you click on start button, start game.
-	    	if(startButtonPoly.contains(arg0.getPoint())){
-	    		reset();
-	    	    alpha = 0;
-	    		nextState = "game";
-	    		transitioningTo = false;
-            }
-            //If you click the exit button, get a small tutorial.
-            else if(exitButtonPoly.contains(arg0.getPoint())){
-	    	    System.exit(0);
-            }
-            //If you click on scores button, display highscores.
-            else if(scoresButtonPoly.contains(arg0.getPoint())){
-	    		alpha = 0;
-	    	    nextState = "scores";
-	    	    transitioningTo = false;
+		@Override
+		public void renderBackground(Graphics g, Snapshot s) {
+			paintGameBackground(g);
+		}
 
-            }
-        }else if(gameState.equals("game")) { //Playing the game.
-			if(!paused) {
-				//Change the direction of the rocket on click.
-				if (arg0.getButton() == MouseEvent.BUTTON1 && !paused) rockets.get(0).changeDirection();
-			} else if(exitGameButtonPoly.contains(arg0.getPoint())){
-				alpha = 0;
-				nextState = "menu";
-				transitioningTo = false;
+		@Override
+		public void renderHud(Graphics g, Snapshot s) {
+			g.setColor(Color.WHITE);
+			g.setFont(HEADINGFONT);
+			if(s.editing){
+				g.drawString("NEW HIGH SCORE:", 40, 40);
+			} else {
+				g.drawString("HIGH SCORES", 40, 40);
 			}
 
-        } else if (gameState.equals("scores")){ //Displaying highscores.
-			//Return to menu if clicked on back button.
-	    	if (backButtonPoly.contains(arg0.getPoint())){
-				for(Highscore hs : highscores){
-					if(hs.name.equals("")) hs.name = newName;
-				}
-				while(highscores.size() > 10){
-	    			highscores.remove(highscores.get(10));
-				}
-				saveScores();
-	    		alpha = 0;
-	    		nextState = "menu";
-	    		transitioningTo = false;
+			//The unnamed row is the new score, shown in yellow with the name being typed.
+			for(int i = s.highscoreCount - 1; i >= 0; i--) {
+				int row = s.highscoreCount - i;
+				boolean highlighted = s.editing && s.highscoreNames[i].equals("");
+				BufferedImage image = row(row, highlighted ? s.newName : s.highscoreNames[i], s.highscoreScores[i], highlighted);
+				g.drawImage(image, 100, (row + 1) * ROWSPACING - rowMetrics.getAscent(), null);
 			}
-		}
-	}
 
-	//Used to type name when a new high score is entered.
-	@Override
-	public void keyPressed(KeyEvent arg0) {
-	    //Typing name for new high score.
-        if(gameState.equals("scores") && editing) {
-            if((Character.isAlphabetic(arg0.getKeyChar()) || arg0.getKeyChar() == ' ') && newName.length() < 15){
-                newName += Character.toUpperCase(arg0.getKeyChar());
-            } else if(arg0.getKeyCode() == 8 && newName.length() != 0){ //Backspace
-                newName = newName.substring(0, newName.length() - 1);
-            } else if(arg0.getKeyChar() == '\n') { //Save highscore name
-                for(Highscore hs : highscores){
-                    if(hs.name.equals("")) hs.name = newName;
-                }
-                while(highscores.size() > 10){
-                    highscores.remove(highscores.get(10));
-                }
-                saveScores();
-                alpha = 0;
-                nextState = "menu";
-                transitioningTo = false;
-            }
-        }
-	}
+			g.drawImage(backButtonImg, backButtonPoly.xpoints[0], backButtonPoly.ypoints[0] - 45, null);
+		}
 
-	//Used to pause the game when playing.
-	@Override
-	public void keyReleased(KeyEvent arg0) {
-		if(arg0.getKeyCode() == 32) { //If the spacebar is pressed.
-			paused = !paused;
+		//The image of a row, made again only if its text or colour changed.
+		private BufferedImage row(int row, String name, int score, boolean highlighted) {
+			if(rowImages[row] != null && name.equals(rowNames[row]) && score == rowScores[row] && highlighted == rowHighlighted[row]) return rowImages[row];
+
+			String number = Integer.toString(row);
+			if(!number.equals("10")) number = "  " + number; //Add space before single digit numbers
+			String text = number + ". " + name + " - " + score;
+			FontMetrics fm = rowMetrics;
+			BufferedImage image = Assets.compatible(Math.max(1, fm.stringWidth(text)), fm.getAscent() + fm.getDescent());
+			Graphics2D ig = image.createGraphics();
+			ig.setFont(ROWFONT);
+			ig.setColor(highlighted ? Color.YELLOW : Color.WHITE);
+			ig.drawString(text, 0, fm.getAscent());
+			ig.dispose();
+			rowImages[row] = image;
+			rowNames[row] = name;
+			rowScores[row] = score;
+			rowHighlighted[row] = highlighted;
+			return image;
 		}
-		
-	}
 
-	//Not used but necessary for compiling.
-	@Override
-	public void keyTyped(KeyEvent arg0) {
+		@Override
+		public void mouseReleased(int x, int y, int button) {
+			//Return to menu if clicked on back button.
+			if (backButtonPoly.contains(x, y)) {
+				nameHighscore();
+				fadeTo(GameState.MENU, null);
+			}
+		}
 
+		@Override
+		public void keyPressed(int code, char c) {
+			//Typing name for new high score.
+			if(!editing) return;
+			if((Character.isAlphabetic(c) || c == ' ') && newName.length() < 15){
+				newName += Character.toUpperCase(c);
+			} else if(code == 8 && newName.length() != 0){ //Backspace
+				newName = newName.substring(0, newName.length() - 1);
+			} else if(c == '\n') { //Save highscore name
+				nameHighscore();
+				fadeTo(GameState.MENU, null);
+			}
+		}
 	}
-
-
 }
@@ -0,0 +1,104 @@
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.ImageCapabilities;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+//Surface for active rendering. The game loop draws straight into a BufferStrategy's back buffer
+//and flips it, instead of asking Swing to repaint and waiting for the EDT.
+public class GameCanvas extends Canvas {
+
+	//Constants
+	private static final long serialVersionUID = 1L;
+
+	//Variables
+	private BufferStrategy strategy;
+	private boolean partial; //Whether the back buffer keeps the last frame, so only a changed part needs drawing.
+	private boolean whole = true; //Whether the next frame must be drawn in full, because the buffer has nothing to keep.
+	private volatile boolean exposed; //Whether the screen lost what was shown, so a still screen must be drawn again.
+
+	public GameCanvas() {
+		setPreferredSize(new Dimension(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE));
+		//Nothing is drawn outside render(), but the windowing system still says when the canvas was uncovered.
+		setIgnoreRepaint(false);
+		setFocusable(true);
+	}
+
+	//Creates the back buffers. Must be called once the canvas is on screen.
+	//With vsync, asks for page flipping, which most accelerated pipelines tie to the display refresh.
+	public void createStrategy(int buffers, boolean vsync) {
+		if(vsync) {
+			try {
+				BufferCapabilities capabilities = new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+				createBufferStrategy(buffers, capabilities);
+				strategy = getBufferStrategy();
+				partial = false; //A flipped back buffer holds an older frame, or nothing.
+				whole = true;
+				return;
+			} catch (AWTException e) {
+				System.out.println("Page flipping not available, falling back to blitting.");
+			}
+		}
+		createBufferStrategy(buffers);
+		strategy = getBufferStrategy();
+
+		//Blitting copies the one back buffer to the screen and leaves it as it was. With more, they take turns.
+		partial = buffers == 2 && !strategy.getCapabilities().isPageFlipping();
+		whole = true;
+	}
+
+	//Draws one frame into the back buffer and shows it, redrawing if the buffers were lost meanwhile.
+	public void render(Game game) {
+		render(game, null);
+	}
+
+	//Draws only the part of the frame inside clip, when the back buffer still holds the rest. Null draws it all.
+	public void render(Game game, Rectangle clip) {
+		do {
+			do {
+				Graphics g = strategy.getDrawGraphics();
+				if(clip != null && partial && !whole) g.clipRect(clip.x, clip.y, clip.width, clip.height);
+				game.draw(g);
+				g.dispose();
+				whole = strategy.contentsRestored();
+			} while(whole);
+			strategy.show();
+
+			//Push the frame out now rather than whenever the windowing system flushes.
+			Toolkit.getDefaultToolkit().sync();
+			whole = strategy.contentsLost();
+		} while(whole);
+	}
+
+	//Called on the EDT when the window is uncovered or resized. Only noted, the loop thread does the drawing.
+	@Override
+	public void paint(Graphics g) {
+		exposed = true;
+	}
+
+	@Override
+	public void update(Graphics g) {
+		exposed = true;
+	}
+
+	//Whether the canvas was uncovered since the last call.
+	public boolean takeExposed() {
+		if(!exposed) return false;
+		exposed = false;
+		return true;
+	}
+
+	//Refresh rate of the screen the canvas is on, or the default frame rate if unknown.
+	public int getRefreshRate() {
+		GraphicsConfiguration configuration = getGraphicsConfiguration();
+		if(configuration == null) return GameLoop.FRAMERATE;
+		int rate = configuration.getDevice().getDisplayMode().getRefreshRate();
+		return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? GameLoop.FRAMERATE : rate;
+	}
+}
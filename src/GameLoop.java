@@ -0,0 +1,131 @@
+import java.util.concurrent.locks.LockSupport;
+
+//Runs the simulation at a fixed tick rate and renders on its own cadence in between.
+public class GameLoop {
+
+	//Constants
+	public static final int TICKRATE = 100; //Simulation ticks per second.
+	public static final long TICKLENGTH = 1000000000L / TICKRATE; //Length of one tick in nanoseconds.
+	public static final double TICKSECONDS = 1.0 / TICKRATE; //Length of one tick in seconds.
+	public static final int MAXCATCHUP = 10; //Most ticks run back to back before the backlog is dropped.
+	public static final int FRAMERATE = 60; //Default frames rendered per second.
+
+	//Callbacks driven by the loop.
+	public interface Listener {
+		//Advances the simulation by exactly one tick.
+		void tick();
+
+		//Draws the current state. Interpolation is how far (0 to 1) real time is past the last tick.
+		void render(double interpolation);
+	}
+
+	//Variables
+	private final Listener listener;
+	private final long frameLength; //Length of one rendered frame in nanoseconds.
+	private final boolean parking; //Pace with LockSupport.parkNanos instead of Thread.sleep.
+	private volatile boolean running;
+	private volatile long tickEpoch; //Wall clock time the latest tick represents.
+	private volatile long ticks; //Ticks run so far.
+	private volatile long lateTicks; //Ticks run behind schedule to catch up.
+	private volatile long droppedTicks; //Ticks skipped because the loop fell too far behind.
+	private volatile long frames; //Frames rendered so far.
+
+	public GameLoop(Listener l, int frameRate, boolean park) {
+		listener = l;
+		frameLength = 1000000000L / frameRate;
+		parking = park;
+	}
+
+	//Runs the simulation on the calling thread and rendering on a second thread until stop() is called.
+	public void run() {
+		running = true;
+		Thread renderThread = new Thread(this::renderLoop, "Orbiter render");
+		renderThread.setDaemon(true);
+		renderThread.start();
+		simulationLoop();
+	}
+
+	public void stop() {
+		running = false;
+	}
+
+	//Fixed timestep: real time is added to an accumulator that is drained one whole tick at a time.
+	private void simulationLoop() {
+		long previous = System.nanoTime();
+		long accumulator = 0;
+		tickEpoch = previous;
+		while(running) {
+			long now = System.nanoTime();
+			accumulator += now - previous;
+			previous = now;
+
+			//If we have fallen too far behind, drop the backlog rather than spiralling.
+			if(accumulator > MAXCATCHUP * TICKLENGTH) {
+				droppedTicks += accumulator / TICKLENGTH - MAXCATCHUP;
+				accumulator = MAXCATCHUP * TICKLENGTH + accumulator % TICKLENGTH;
+			}
+
+			while(accumulator >= TICKLENGTH) {
+				//More than one tick pending means this one is running late.
+				if(accumulator >= 2 * TICKLENGTH) lateTicks++;
+				listener.tick();
+				ticks++;
+				accumulator -= TICKLENGTH;
+			}
+			tickEpoch = now - accumulator;
+
+			pace(now + TICKLENGTH - accumulator);
+		}
+	}
+
+	//Renders at the frame rate, independent of the simulation.
+	private void renderLoop() {
+		long nextFrame = System.nanoTime();
+		while(running) {
+			double interpolation = (double) (System.nanoTime() - tickEpoch) / TICKLENGTH;
+			if(interpolation < 0) interpolation = 0;
+			else if(interpolation > 1) interpolation = 1;
+			listener.render(interpolation);
+			frames++;
+
+			nextFrame += frameLength;
+			long now = System.nanoTime();
+			//Missed a frame, don't try to make it up.
+			if(nextFrame < now) nextFrame = now;
+			pace(nextFrame);
+		}
+	}
+
+	//Waits until the given System.nanoTime() deadline.
+	private void pace(long deadline) {
+		long remaining = deadline - System.nanoTime();
+		if(parking) {
+			while(remaining > 0 && running) {
+				LockSupport.parkNanos(remaining);
+				remaining = deadline - System.nanoTime();
+			}
+		} else if(remaining > 0) {
+			try {
+				Thread.sleep(remaining / 1000000, (int) (remaining % 1000000));
+			} catch (InterruptedException e) {
+				running = false;
+			}
+		}
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getLateTicks() {
+		return lateTicks;
+	}
+
+	public long getDroppedTicks() {
+		return droppedTicks;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+}
@@ -0,0 +1,7 @@
+//The screens the game can be on. Game keeps a handler for each one, looked up by ordinal.
+public enum GameState {
+	MENU, //Title and buttons.
+	GAME, //Playing.
+	GAME_OVER, //Every rocket is gone. The last of the game fades out.
+	SCORES //High score table, maybe with a new name being typed.
+}
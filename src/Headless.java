@@ -0,0 +1,63 @@
+//Runs seeded sessions without a window as fast as the CPU allows and reports simulation throughput.
+//Usage: java Headless [sessions] [seed] [max ticks per session] [replay file]
+//With a replay file, the inputs of the first session are saved to it for java Replay.
+//java Headless -stress [options] runs the load test in java Stress instead.
+public class Headless {
+
+	public static void main(String[] args) throws java.io.IOException {
+		if(args.length > 0 && args[0].equals("-stress")) {
+			Stress.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		long maxTicks = args.length > 2 ? Long.parseLong(args[2]) : 100000;
+		String replayFile = args.length > 3 ? args[3] : null;
+
+		long totalTicks = 0;
+		long totalScore = 0;
+		int best = 0;
+		long start = System.nanoTime();
+		for(int i = 0; i < sessions; i++) {
+			Replay replay = i == 0 && replayFile != null ? new Replay(seed + i) : null;
+			Simulation simulation = run(seed + i, maxTicks, replay);
+			if(replay != null) {
+				replay.finish(simulation);
+				replay.save(java.nio.file.Paths.get(replayFile));
+			}
+			totalTicks += simulation.getTicks();
+			totalScore += simulation.getScore();
+			best = Math.max(best, simulation.getScore());
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("sessions:      " + sessions);
+		System.out.println("ticks:         " + totalTicks);
+		System.out.println("seconds:       " + String.format("%.3f", seconds));
+		System.out.println("ticks/sec:     " + String.format("%.0f", totalTicks / seconds));
+		System.out.println("mean score:    " + String.format("%.1f", (double) totalScore / sessions));
+		System.out.println("best score:    " + best);
+	}
+
+	//Plays one session with a bot until the rocket dies or maxTicks pass.
+	public static Simulation run(long seed, long maxTicks) {
+		return run(seed, maxTicks, null);
+	}
+
+	//Same, recording the bot's inputs into the replay if there is one.
+	public static Simulation run(long seed, long maxTicks, Replay replay) {
+		Simulation simulation = new Simulation(seed);
+		simulation.setRecorder(replay);
+		return play(simulation, maxTicks);
+	}
+
+	//Lets a bot play an existing simulation until the rocket dies or maxTicks pass.
+	public static Simulation play(Simulation simulation, long maxTicks) {
+		Bot bot = new Bot(0, 40, 12);
+		while(!simulation.isOver() && simulation.getTicks() < maxTicks) {
+			bot.act(simulation);
+			simulation.tick();
+		}
+		return simulation;
+	}
+}
@@ -0,0 +1,20 @@
+//A health pack sitting on the rocket path. Coordinates are relative to the center of the world.
+//Simulation reuses them through a Pool, so nothing should hold on to one after it is taken.
+public class HealthPack {
+	public int x;
+	public int y;
+
+	public HealthPack() {
+	}
+
+	public HealthPack(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	//Back to the state of a new one, for reuse.
+	public void reset() {
+		x = 0;
+		y = 0;
+	}
+}
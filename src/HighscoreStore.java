@@ -0,0 +1,166 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+//Saves and loads high scores in a compact binary file that a crash can never leave half written.
+//
+//Format, big endian:
+//    int    MAGIC
+//    short  VERSION
+//    int    number of records
+//    records, each: int score, unsigned short name length in bytes, UTF-8 name
+//    int    CRC32 of everything before it
+//
+//Saving writes a temporary file next to the real one, syncs it to disk and renames it over the
+//real one in a single atomic step, so the file on disk is always either the old table or the new one.
+//The directory is synced after the rename so the new table survives a crash once save returns.
+//Loading reads the whole file into memory with one call and keeps no handle on it, so the rename can always replace it.
+public class HighscoreStore {
+
+	//Constants
+	public static final int MAGIC = 0x4F524253; //"ORBS"
+	public static final short VERSION = 1;
+	private static final int HEADERSIZE = 4 + 2 + 4;
+	private static final int TRAILERSIZE = 4;
+
+	//Variables
+	private final Path file;
+	private final Path temporary;
+	private final Path legacy; //Old "name, score" text file to import from if there is no binary file yet.
+
+	public HighscoreStore(String file, String legacy) {
+		this.file = Paths.get(file);
+		this.temporary = Paths.get(file + ".tmp");
+		this.legacy = legacy != null ? Paths.get(legacy) : null;
+	}
+
+	//Reads every record in the order they were saved. Returns an empty list if there is nothing saved yet.
+	public ArrayList<Highscore> load() throws IOException {
+		if(!Files.exists(file)) {
+			if(legacy != null && Files.exists(legacy)) return loadLegacy();
+			return new ArrayList<Highscore>();
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size < HEADERSIZE + TRAILERSIZE) throw new IOException(file + " is truncated");
+			if(size > Integer.MAX_VALUE) throw new IOException(file + " is too large");
+
+			//Not mapped: a mapping lives until it is garbage collected, and on Windows a mapped file can't be replaced.
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while(buffer.hasRemaining()) {
+				if(channel.read(buffer) < 0) throw new IOException(file + " is truncated");
+			}
+			buffer.flip();
+
+			//Check the whole file before trusting any of it.
+			ByteBuffer body = buffer.duplicate();
+			body.limit((int) (size - TRAILERSIZE));
+			CRC32 crc = new CRC32();
+			crc.update(body);
+			if((int) crc.getValue() != buffer.getInt((int) (size - TRAILERSIZE))) throw new IOException(file + " failed its checksum");
+
+			if(buffer.getInt() != MAGIC) throw new IOException(file + " is not a high score file");
+			short version = buffer.getShort();
+			if(version != VERSION) throw new IOException(file + " has unknown version " + version);
+			int count = buffer.getInt();
+
+			ArrayList<Highscore> highscores = new ArrayList<Highscore>(count);
+			byte[] name = new byte[64];
+			for(int i = 0; i < count; i++) {
+				int score = buffer.getInt();
+				int length = buffer.getShort() & 0xFFFF;
+				if(length > name.length) name = new byte[length];
+				buffer.get(name, 0, length);
+				highscores.add(new Highscore(new String(name, 0, length, StandardCharsets.UTF_8), score));
+			}
+			return highscores;
+		}
+	}
+
+	//Replaces the saved records with these, atomically.
+	public void save(List<Highscore> highscores) throws IOException {
+		CRC32 crc = new CRC32();
+		FileOutputStream fileStream = new FileOutputStream(temporary.toFile());
+		try {
+			DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileStream, 1 << 16), crc));
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(highscores.size());
+			for(Highscore hs : highscores) {
+				byte[] name = hs.name.getBytes(StandardCharsets.UTF_8);
+				if(name.length > 0xFFFF) throw new IOException("Name too long to save");
+				out.writeInt(hs.score);
+				out.writeShort(name.length);
+				out.write(name);
+			}
+			out.flush();
+
+			//The checksum goes after the checked stream so it isn't part of what it covers.
+			DataOutputStream trailer = new DataOutputStream(fileStream);
+			trailer.writeInt((int) crc.getValue());
+			trailer.flush();
+
+			//Make sure the data is on disk before the rename makes it the real file.
+			fileStream.getFD().sync();
+		} finally {
+			fileStream.close();
+		}
+
+		try {
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		//The rename lives in the directory, so it could still be lost in a crash until that is synced too.
+		syncDirectory();
+	}
+
+	//Syncs the directory holding the file. Windows can't open a directory as a channel, and there the rename
+	//is already durable once it returns, so this is skipped where opening or forcing it fails.
+	private void syncDirectory() {
+		Path directory = file.toAbsolutePath().getParent();
+		if(directory == null) return;
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			//Not supported here.
+		}
+	}
+
+	//Reads the old text format. The score is after the last ", " so names containing ", " still load.
+	//It was written by a FileWriter, so it is in the platform's default charset rather than UTF-8.
+	private ArrayList<Highscore> loadLegacy() throws IOException {
+		ArrayList<Highscore> highscores = new ArrayList<Highscore>();
+		try (BufferedReader inputStream = Files.newBufferedReader(legacy, Charset.defaultCharset())) {
+			String line;
+			while((line = inputStream.readLine()) != null){
+				int split = line.lastIndexOf(", ");
+				if(split < 0) continue;
+				try {
+					highscores.add(new Highscore(line.substring(0, split), Integer.parseInt(line.substring(split + 2).trim())));
+				} catch (NumberFormatException e) {
+					System.out.println("Skipping unreadable high score: " + line);
+				}
+			}
+		}
+		return highscores;
+	}
+}
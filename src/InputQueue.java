@@ -0,0 +1,88 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+//Carries input from the AWT event thread to the loop thread. A bounded single producer, single consumer ring:
+//the event thread pushes timestamped events and the loop drains them all at the start of a tick, so input is
+//only ever applied between ticks and in the order it happened. Neither side locks or waits.
+//Only one thread may push and only one may drain. All AWT listeners run on the event thread, so that holds.
+public class InputQueue {
+
+	//Event types
+	public static final int MOUSERELEASED = 0; //Code is the button, x and y where it was released.
+	public static final int KEYPRESSED = 1; //Code is the key code, x the key's character.
+	public static final int KEYRELEASED = 2; //Code is the key code.
+
+	//Constants
+	public static final int CAPACITY = 256; //Events held before new ones are dropped. A power of two.
+
+	//Receives each drained event on the loop thread.
+	public interface Handler {
+		void input(int type, int code, int x, int y);
+	}
+
+	//Variables
+	private final int mask = CAPACITY - 1;
+	private final int[] type = new int[CAPACITY];
+	private final int[] code = new int[CAPACITY];
+	private final int[] x = new int[CAPACITY];
+	private final int[] y = new int[CAPACITY];
+	private final long[] time = new long[CAPACITY]; //System.nanoTime() when each event was pushed.
+	private final AtomicLong head = new AtomicLong(); //Next event to drain. Only written by the consumer.
+	private final AtomicLong tail = new AtomicLong(); //Next free slot. Only written by the producer.
+	private long cachedHead; //Producer's last look at head, so it only reads the consumer's counter when it seems full.
+	private volatile long dropped; //Events thrown away because the ring was full. Only written by the producer.
+	private final PhaseRecorder latency = new PhaseRecorder("input"); //Time from push to drain.
+
+	//Adds an event. Producer thread only. Returns false and drops it if the ring is full.
+	public boolean push(int eventType, int eventCode, int eventX, int eventY) {
+		long t = tail.get();
+		if(t - cachedHead >= CAPACITY) {
+			cachedHead = head.get();
+			if(t - cachedHead >= CAPACITY) {
+				dropped++;
+				return false;
+			}
+		}
+		int i = (int) t & mask;
+		type[i] = eventType;
+		code[i] = eventCode;
+		x[i] = eventX;
+		y[i] = eventY;
+		time[i] = System.nanoTime();
+
+		//The slot is written before the new tail is visible, so the consumer never sees half an event.
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	//Hands every waiting event to the handler in order. Consumer thread only. Returns how many there were.
+	//Events pushed while draining wait for the next call, so one drain is bounded by the capacity.
+	public int drain(Handler handler) {
+		long h = head.get();
+		long t = tail.get();
+		if(h == t) return 0;
+		long now = System.nanoTime();
+		for(long n = h; n < t; n++) {
+			int i = (int) n & mask;
+			latency.record(now - time[i]);
+			handler.input(type[i], code[i], x[i], y[i]);
+		}
+
+		//Only now may the producer reuse the slots.
+		head.lazySet(t);
+		return (int) (t - h);
+	}
+
+	//Events waiting to be drained. Approximate from any other thread.
+	public int size() {
+		return (int) (tail.get() - head.get());
+	}
+
+	public long getDropped() {
+		return dropped;
+	}
+
+	//How long events waited between being pushed and applied.
+	public PhaseRecorder getLatency() {
+		return latency;
+	}
+}
@@ -0,0 +1,83 @@
+//Times the phases of each tick and frame so we can see where the time goes.
+//Every phase feeds a PhaseRecorder. If a Sink is attached (the JFR events in jfr/ when they are on the
+//classpath and the JDK has Flight Recorder) each tick and frame is handed to it as well.
+public class Instrumentation {
+
+	//Phases.
+	public static final int MOVE = 0;
+	public static final int COLLIDE = 1;
+	public static final int SPAWN = 2;
+	public static final int TICK = 3; //A whole simulation tick.
+	public static final int BACKGROUND = 4;
+	public static final int ENTITIES = 5;
+	public static final int HUD = 6;
+	public static final int FRAME = 7; //A whole frame.
+	public static final String[] NAMES = {"move", "collide", "spawn", "tick", "paint background", "paint entities", "hud", "frame"};
+
+	//Receives every tick and frame, for exporting them elsewhere.
+	public interface Sink {
+		void tick(long move, long collide, long spawn, int projectiles, int health, int score);
+
+		void frame(long background, long entities, long hud);
+	}
+
+	//Variables
+	private final PhaseRecorder[] recorders = new PhaseRecorder[NAMES.length];
+	private final Sink sink; //Or null.
+	private volatile double fps; //Frames per second over the last second.
+	private long fpsStart; //When the current second of frames began. Render thread only.
+	private int fpsFrames; //Frames so far in the current second. Render thread only.
+
+	public Instrumentation(Sink sink) {
+		for(int i = 0; i < recorders.length; i++) recorders[i] = new PhaseRecorder(NAMES[i]);
+		this.sink = sink;
+	}
+
+	//Instrumentation with the Flight Recorder events if they can be loaded, otherwise without.
+	public static Instrumentation create() {
+		Sink sink = null;
+		try {
+			sink = (Sink) Class.forName("JfrSink").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			//Not compiled in, or the JDK has no jdk.jfr. Timings still go to the recorders.
+		}
+		return new Instrumentation(sink);
+	}
+
+	//Called at the end of a tick with System.nanoTime() taken at the start and after each phase.
+	public void tick(long start, long moved, long collided, long spawned, int projectiles, int health, int score) {
+		recorders[MOVE].record(moved - start);
+		recorders[COLLIDE].record(collided - moved);
+		recorders[SPAWN].record(spawned - collided);
+		recorders[TICK].record(spawned - start);
+		if(sink != null) sink.tick(moved - start, collided - moved, spawned - collided, projectiles, health, score);
+	}
+
+	//Called at the end of a frame, the same way.
+	public void frame(long start, long background, long entities, long end) {
+		recorders[BACKGROUND].record(background - start);
+		recorders[ENTITIES].record(entities - background);
+		recorders[HUD].record(end - entities);
+		recorders[FRAME].record(end - start);
+		if(sink != null) sink.frame(background - start, entities - background, end - entities);
+
+		fpsFrames++;
+		if(end - fpsStart >= 1000000000L) {
+			if(fpsStart != 0) fps = fpsFrames * 1e9 / (end - fpsStart);
+			fpsStart = end;
+			fpsFrames = 0;
+		}
+	}
+
+	public PhaseRecorder getRecorder(int phase) {
+		return recorders[phase];
+	}
+
+	public double getFps() {
+		return fps;
+	}
+
+	public boolean hasSink() {
+		return sink != null;
+	}
+}
@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//High scores kept in rank order, highest first, in an indexable skip list.
+//Adding a score, asking what rank a score would get and looking up a rank are all O(log n),
+//so a table of tens of thousands of runs costs about the same as the top 10.
+//A new score that ties existing ones ranks above them, as the old list did.
+public class Leaderboard implements Iterable<Highscore> {
+
+	//Constants
+	private static final int MAXLEVEL = 32;
+
+	//One entry. next[i] skips width[i] entries ahead on level i.
+	private static final class Node {
+		final Highscore highscore;
+		final int score; //Copied out of highscore to save a pointer hop while searching.
+		final Node[] next;
+		final int[] width;
+
+		Node(Highscore highscore, int levels) {
+			this.highscore = highscore;
+			score = highscore != null ? highscore.score : 0;
+			next = new Node[levels];
+			width = new int[levels];
+		}
+	}
+
+	//Variables
+	private final int capacity; //Most entries kept. The lowest is dropped past this.
+	private final Node head = new Node(null, MAXLEVEL);
+	private final Node[] update = new Node[MAXLEVEL]; //Last node before the change on each level.
+	private final int[] position = new int[MAXLEVEL]; //Index of each update node, -1 being the head.
+	private int levels = 1; //Levels in use.
+	private int size;
+	private int seed = 0x2545F491; //State for picking node heights.
+
+	public Leaderboard(int capacity) {
+		if(capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+		this.capacity = capacity;
+		for(int level = 0; level < MAXLEVEL; level++) head.width[level] = 1; //Past the end counts as one step beyond the last entry.
+	}
+
+	//Whether a score would make it onto a full board. Ties with the lowest score don't.
+	public boolean qualifies(int score) {
+		return size < capacity || score > get(size - 1).score;
+	}
+
+	//Rank (1 being the best) a new score would get.
+	public int rank(int score) {
+		int rank = 0;
+		Node node = head;
+		for(int level = levels - 1; level >= 0; level--) {
+			while(node.next[level] != null && node.next[level].score > score) {
+				rank += node.width[level];
+				node = node.next[level];
+			}
+		}
+		return rank + 1;
+	}
+
+	//Adds a score and returns its entry, or null if it ranked below the capacity and was dropped.
+	public Highscore add(String name, int score) {
+		Highscore highscore = new Highscore(name, score);
+
+		//Find the last node on each level that ranks above the new score.
+		Node node = head;
+		int index = -1;
+		for(int level = levels - 1; level >= 0; level--) {
+			while(node.next[level] != null && node.next[level].highscore.score > score) {
+				index += node.width[level];
+				node = node.next[level];
+			}
+			update[level] = node;
+			position[level] = index;
+		}
+		int rank = index + 1; //Index the new node will have.
+		if(rank >= capacity) return null;
+
+		int height = randomLevel();
+		if(height > levels) {
+			for(int level = levels; level < height; level++) {
+				update[level] = head;
+				position[level] = -1;
+				head.width[level] = size + 1;
+			}
+			levels = height;
+		}
+
+		Node added = new Node(highscore, height);
+		for(int level = 0; level < height; level++) {
+			Node before = update[level];
+			added.next[level] = before.next[level];
+			before.next[level] = added;
+			int skipped = rank - position[level]; //Entries from before to the new node.
+			added.width[level] = before.width[level] - skipped + 1;
+			before.width[level] = skipped;
+		}
+		for(int level = height; level < levels; level++) update[level].width[level]++;
+		size++;
+
+		if(size > capacity) removeAt(size - 1);
+		return highscore;
+	}
+
+	//Entry at a zero based index, 0 being the best.
+	public Highscore get(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException(Integer.toString(index));
+		return find(index).highscore;
+	}
+
+	//Removes the entry at a zero based index.
+	public Highscore removeAt(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException(Integer.toString(index));
+		Node node = head;
+		int position = -1;
+		for(int level = levels - 1; level >= 0; level--) {
+			while(node.next[level] != null && position + node.width[level] < index) {
+				position += node.width[level];
+				node = node.next[level];
+			}
+			update[level] = node;
+		}
+		Node removed = node.next[0];
+		for(int level = 0; level < levels; level++) {
+			Node before = update[level];
+			if(before.next[level] == removed) {
+				before.width[level] += removed.width[level] - 1;
+				before.next[level] = removed.next[level];
+			} else {
+				before.width[level]--;
+			}
+		}
+		while(levels > 1 && head.next[levels - 1] == null) levels--;
+		size--;
+		return removed.highscore;
+	}
+
+	//The best k entries, highest first.
+	public ArrayList<Highscore> top(int k) {
+		ArrayList<Highscore> top = new ArrayList<Highscore>(Math.min(k, size));
+		for(Node node = head.next[0]; node != null && top.size() < k; node = node.next[0]) top.add(node.highscore);
+		return top;
+	}
+
+	//Every entry lowest first, the order they are saved in. Adding them back in this order keeps ties in place.
+	public ArrayList<Highscore> toList() {
+		ArrayList<Highscore> list = top(size);
+		for(int i = 0, j = list.size() - 1; i < j; i++, j--) list.set(i, list.set(j, list.get(i)));
+		return list;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	//Iterates highest first.
+	@Override
+	public Iterator<Highscore> iterator() {
+		return new Iterator<Highscore>() {
+			private Node node = head.next[0];
+
+			@Override
+			public boolean hasNext() {
+				return node != null;
+			}
+
+			@Override
+			public Highscore next() {
+				if(node == null) throw new NoSuchElementException();
+				Highscore highscore = node.highscore;
+				node = node.next[0];
+				return highscore;
+			}
+		};
+	}
+
+	private Node find(int index) {
+		Node node = head;
+		int position = -1;
+		for(int level = levels - 1; level >= 0; level--) {
+			while(node.next[level] != null && position + node.width[level] <= index) {
+				position += node.width[level];
+				node = node.next[level];
+			}
+		}
+		return node;
+	}
+
+	//Each level up is half as likely.
+	private int randomLevel() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		int level = Integer.numberOfTrailingZeros(seed | (1 << (MAXLEVEL - 1))) + 1;
+		return Math.min(level, MAXLEVEL);
+	}
+}
@@ -1,19 +1,64 @@
 import javax.swing.JFrame;
-import java.io.File;
 
+//Usage: java Orbiter [-passive] [-buffers 2|3] [-vsync] [-seed N] [-record file] [-rockets N] [-players 0|1|2]
+//By default the game loop renders actively into a double buffered canvas.
+//-passive falls back to painting a Swing panel through repaint().
+//-seed makes the games reproducible and -record saves each finished game's inputs for java Replay.
+//-rockets spreads several rockets over the orbits. The first -players (default 1) are steered locally, the rest by bots.
+//-stress runs the load test instead of the game, passing the rest of the arguments on to java Stress.
 public class Orbiter extends JFrame{
 	public static final int WINDOWSIZE = 600;
-	public static void main(String[] args) throws InterruptedException {
+	public static void main(String[] args) throws java.io.IOException {
+		if(args.length > 0 && args[0].equals("-stress")) {
+			Stress.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		boolean passive = false;
+		boolean vsync = false;
+		int buffers = 2;
+		long seed = System.nanoTime();
+		String record = null;
+		int rockets = 1;
+		int players = 1;
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("-passive")) passive = true;
+			else if(args[i].equals("-vsync")) vsync = true;
+			else if(args[i].equals("-buffers") && i + 1 < args.length) buffers = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-seed") && i + 1 < args.length) seed = Long.parseLong(args[++i]);
+			else if(args[i].equals("-record") && i + 1 < args.length) record = args[++i];
+			else if(args[i].equals("-rockets") && i + 1 < args.length) rockets = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-players") && i + 1 < args.length) players = Integer.parseInt(args[++i]);
+		}
 
 		Orbiter frame = new Orbiter();
-		Game game = new Game();
-		frame.add(game);
+		Game game = new Game(seed);
+		game.setReplayFile(record);
+		game.setRockets(rockets, players);
+
+		//Closing the window and the exit button both end in System.exit, so flush the scores from a hook.
+		Runtime.getRuntime().addShutdownHook(new Thread(game::shutdown, "Orbiter shutdown"));
+		GameCanvas canvas = null;
+		if(passive) {
+			frame.add(game);
+		} else {
+			canvas = new GameCanvas();
+			frame.add(canvas);
+		}
 		frame.pack();
 		frame.setSize(WINDOWSIZE, WINDOWSIZE + frame.getInsets().top + frame.getInsets().bottom);
 		frame.setTitle("Orbiter");
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		frame.setResizable(false);
 		frame.setVisible(true);
-		game.start();
+
+		int frameRate = GameLoop.FRAMERATE;
+		if(canvas != null) {
+			canvas.createStrategy(buffers, vsync);
+			game.setCanvas(canvas);
+
+			//With vsync, render once per refresh.
+			if(vsync) frameRate = canvas.getRefreshRate();
+		}
+		game.start(frameRate);
 	}
 }
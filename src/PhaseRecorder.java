@@ -0,0 +1,112 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//A lock-free histogram of durations in nanoseconds, bucketed like HdrHistogram:
+//values below 32 get a bucket each, and above that every power of two is split into 16 buckets,
+//so any recorded value is known to within about 6% across the whole range of a long.
+//Any thread may record. Readers take copies and compare them, so recording never waits on a reader.
+public class PhaseRecorder {
+
+	//Constants
+	private static final int SUBBITS = 5; //Bits of precision kept for each value.
+	private static final int SUBCOUNT = 1 << SUBBITS; //Values below this are exact.
+	private static final int HALF = SUBCOUNT / 2; //Buckets per power of two above SUBCOUNT.
+	public static final int BUCKETS = SUBCOUNT + (64 - SUBBITS) * HALF;
+
+	//Variables
+	private final String name;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong(); //Sum of every value recorded.
+	private final AtomicLong max = new AtomicLong(); //Largest value recorded.
+
+	public PhaseRecorder(String name) {
+		this.name = name;
+	}
+
+	public void record(long nanos) {
+		if(nanos < 0) nanos = 0;
+		counts.incrementAndGet(bucket(nanos));
+		total.addAndGet(nanos);
+		long m = max.get();
+		while(nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+	}
+
+	//Copies the current counts into an array of BUCKETS longs.
+	public void copyCounts(long[] into) {
+		for(int i = 0; i < BUCKETS; i++) into[i] = counts.get(i);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getTotal() {
+		return total.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	//Bucket a value is counted in.
+	static int bucket(long value) {
+		if(value < SUBCOUNT) return (int) value;
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUBBITS; //How far to drop the value so SUBBITS remain.
+		int top = (int) (value >>> shift); //From HALF to SUBCOUNT - 1.
+		return SUBCOUNT + (shift - 1) * HALF + top - HALF;
+	}
+
+	//Middle of the range of values counted in a bucket.
+	static long value(int bucket) {
+		if(bucket < SUBCOUNT) return bucket;
+		int shift = (bucket - SUBCOUNT) / HALF + 1;
+		long low = (long) ((bucket - SUBCOUNT) % HALF + HALF) << shift;
+		return low + (1L << shift) / 2;
+	}
+
+	//Percentile (0 to 100) of a set of counts, or 0 if they are empty.
+	public static long percentile(long[] counts, double percent) {
+		long count = 0;
+		for(long c : counts) count += c;
+		if(count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank) return value(i);
+		}
+		return value(counts.length - 1);
+	}
+
+	//What a recorder counted since the last update, for showing recent numbers rather than all time.
+	public static class Interval {
+		private final PhaseRecorder recorder;
+		private final long[] previous = new long[BUCKETS];
+		private final long[] current = new long[BUCKETS];
+		private final long[] counts = new long[BUCKETS]; //Difference between the last two updates.
+		private long count;
+
+		public Interval(PhaseRecorder recorder) {
+			this.recorder = recorder;
+		}
+
+		//Starts a new interval. Percentiles then cover everything recorded since the previous update.
+		public void update() {
+			recorder.copyCounts(current);
+			count = 0;
+			for(int i = 0; i < BUCKETS; i++) {
+				counts[i] = current[i] - previous[i];
+				count += counts[i];
+				previous[i] = current[i];
+			}
+		}
+
+		public long percentile(double percent) {
+			return PhaseRecorder.percentile(counts, percent);
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+import java.util.Arrays;
+
+//Buckets entities by angle and distance from the center so a rocket only looks at what is near its hitbox.
+//Each cell is an annulus sector. Entities are identified by an int id (their slot) and every cell keeps
+//an intrusive doubly linked list of its ids, so moving between cells allocates nothing.
+public class PolarGrid {
+
+	//Variables
+	private final int sectors; //Number of angular buckets.
+	private final double sectorWidth; //Degrees covered by each sector.
+	private final int rings; //Number of radial buckets. The last ring also holds everything past it.
+	private final double ringWidth; //Distance covered by each ring.
+	private int[] head; //First id in each cell, or -1.
+	private int[] next; //Next id in the same cell, or -1.
+	private int[] previous; //Previous id in the same cell, or -1.
+	private int[] sectorOf; //Sector each id is in.
+	private int[] ringOf; //Ring each id is in, or -1 if the id is not in the grid.
+	private int[] results; //Ids found by the last query.
+
+	public PolarGrid(int sectors, int rings, double ringWidth, int capacity) {
+		this.sectors = sectors;
+		this.sectorWidth = 360.0 / sectors;
+		this.rings = rings;
+		this.ringWidth = ringWidth;
+		head = new int[sectors * rings];
+		Arrays.fill(head, -1);
+		next = new int[capacity];
+		previous = new int[capacity];
+		sectorOf = new int[capacity];
+		ringOf = new int[capacity];
+		Arrays.fill(ringOf, -1);
+		results = new int[16];
+	}
+
+	//Makes room for ids up to capacity - 1.
+	public void grow(int capacity) {
+		if(capacity <= next.length) return;
+		int old = ringOf.length;
+		next = Arrays.copyOf(next, capacity);
+		previous = Arrays.copyOf(previous, capacity);
+		sectorOf = Arrays.copyOf(sectorOf, capacity);
+		ringOf = Arrays.copyOf(ringOf, capacity);
+		Arrays.fill(ringOf, old, capacity, -1);
+	}
+
+	//Adds an id at the given angle in degrees and distance from the center.
+	public void insert(int id, double angle, double radius) {
+		if(id >= next.length) grow(Math.max(16, Math.max(id + 1, next.length * 2)));
+		int sector = (int) (normalize(angle) / sectorWidth);
+		if(sector >= sectors) sector = sectors - 1;
+		sectorOf[id] = sector;
+		link(id, ring(radius));
+	}
+
+	//Moves an id to a new distance from the center. Only relinks when it crosses into another ring.
+	public void setRadius(int id, double radius) {
+		int ring = ring(radius);
+		if(ring != ringOf[id]) {
+			unlink(id);
+			link(id, ring);
+		}
+	}
+
+	public void remove(int id) {
+		unlink(id);
+		ringOf[id] = -1;
+	}
+
+	//The entity known as from is now known as to. Used when the owner swap-removes into a freed slot.
+	public void relocate(int from, int to) {
+		int ring = ringOf[from];
+		unlink(from);
+		ringOf[from] = -1;
+		sectorOf[to] = sectorOf[from];
+		link(to, ring);
+	}
+
+	public void clear() {
+		Arrays.fill(head, -1);
+		Arrays.fill(ringOf, -1);
+	}
+
+	//Finds every id in the cells a convex quad (corners starting at offset) could overlap.
+	//The quad must not contain the center. Returns how many ids were written to getResults().
+	public int queryQuad(double[] xpoints, double[] ypoints, int offset) {
+		//Angular span, measured from the first corner so it works across 0 degrees.
+		double first = Math.toDegrees(Math.atan2(ypoints[offset], xpoints[offset]));
+		double low = 0;
+		double high = 0;
+		double far = 0; //Squared distances, square rooted once at the end.
+		double near = Double.MAX_VALUE;
+		for(int i = 0; i < 4; i++) {
+			double x = xpoints[offset + i];
+			double y = ypoints[offset + i];
+			double difference = Math.toDegrees(Math.atan2(y, x)) - first;
+			if(difference > 180) difference -= 360;
+			else if(difference < -180) difference += 360;
+			low = Math.min(low, difference);
+			high = Math.max(high, difference);
+			far = Math.max(far, x * x + y * y);
+
+			//The nearest point can be in the middle of an edge rather than on a corner.
+			int j = offset + ((i + 1) & 3);
+			near = Math.min(near, squaredDistanceToSegment(x, y, xpoints[j], ypoints[j]));
+		}
+		double start = normalize(first + low) / sectorWidth;
+		int firstSector = (int) start;
+		int sectorCount = Math.min(sectors, (int) (start + (high - low) / sectorWidth) - firstSector + 1);
+		return query(firstSector, sectorCount, ring(Math.sqrt(near)), ring(Math.sqrt(far)));
+	}
+
+	//Finds every id in the given rings, all the way around.
+	public int queryRings(int minRing, int maxRing) {
+		return query(0, sectors, minRing, maxRing);
+	}
+
+	//Finds every id in sectorCount sectors from firstSector (wrapping past 360 degrees) and rings minRing to maxRing.
+	public int query(int firstSector, int sectorCount, int minRing, int maxRing) {
+		int count = 0;
+		for(int s = 0; s < sectorCount; s++) {
+			int sector = (firstSector + s) % sectors;
+			for(int ring = minRing; ring <= maxRing; ring++) {
+				for(int id = head[sector * rings + ring]; id != -1; id = next[id]) {
+					if(count == results.length) results = Arrays.copyOf(results, count * 2);
+					results[count++] = id;
+				}
+			}
+		}
+		return count;
+	}
+
+	public int[] getResults() {
+		return results;
+	}
+
+	//Ring that a distance from the center falls in.
+	public int ring(double radius) {
+		int ring = (int) (radius / ringWidth);
+		if(ring < 0) return 0;
+		return ring < rings ? ring : rings - 1;
+	}
+
+	private void link(int id, int ring) {
+		int cell = sectorOf[id] * rings + ring;
+		ringOf[id] = ring;
+		previous[id] = -1;
+		next[id] = head[cell];
+		if(head[cell] != -1) previous[head[cell]] = id;
+		head[cell] = id;
+	}
+
+	private void unlink(int id) {
+		if(ringOf[id] == -1) return;
+		if(previous[id] != -1) next[previous[id]] = next[id];
+		else head[sectorOf[id] * rings + ringOf[id]] = next[id];
+		if(next[id] != -1) previous[next[id]] = previous[id];
+	}
+
+	//Wraps an angle in degrees into 0 to 360.
+	private static double normalize(double angle) {
+		angle %= 360;
+		return angle < 0 ? angle + 360 : angle;
+	}
+
+	//Squared distance from the center to the closest point of the segment from (x1, y1) to (x2, y2).
+	private static double squaredDistanceToSegment(double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double length = dx * dx + dy * dy;
+		double t = length == 0 ? 0 : -(x1 * dx + y1 * dy) / length;
+		if(t < 0) t = 0;
+		else if(t > 1) t = 1;
+		double x = x1 + t * dx;
+		double y = y1 + t * dy;
+		return x * x + y * y;
+	}
+}
@@ -0,0 +1,78 @@
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+//A bounded free list of reusable objects. acquire() hands back a released object when there is one and only
+//makes a new one when the free list is empty. Released objects are kept up to the capacity and dropped past it,
+//so a burst can't pin its peak forever. Reused objects are reset before they are handed out again.
+//Not thread safe: each pool belongs to one simulation and is only used from the thread ticking it.
+public class Pool<T> {
+
+	//Variables
+	private final Supplier<T> factory; //Makes a new object when none are free.
+	private final Consumer<T> reset; //Clears an object's old state before it is reused.
+	private final Object[] free; //Released objects, stacked from 0.
+	private int freeCount;
+	private int outstanding; //Acquired and not yet released.
+	private int highWater; //Most objects ever outstanding at once.
+	private long acquires;
+	private long hits; //Acquires served from the free list.
+	private long dropped; //Releases thrown away because the free list was full.
+
+	public Pool(Supplier<T> factory, Consumer<T> reset, int capacity) {
+		this.factory = factory;
+		this.reset = reset;
+		free = new Object[capacity];
+	}
+
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		acquires++;
+		outstanding++;
+		if(outstanding > highWater) highWater = outstanding;
+		if(freeCount == 0) return factory.get();
+		hits++;
+		T t = (T) free[--freeCount];
+		free[freeCount] = null;
+		reset.accept(t);
+		return t;
+	}
+
+	//Gives an object back. It must not be used again by whoever released it.
+	public void release(T t) {
+		outstanding--;
+		if(freeCount == free.length) {
+			dropped++;
+			return;
+		}
+		free[freeCount++] = t;
+	}
+
+	//Share of acquires that reused an object, from 0 to 1.
+	public double getHitRate() {
+		return acquires == 0 ? 0 : (double) hits / acquires;
+	}
+
+	public int getHighWater() {
+		return highWater;
+	}
+
+	public int getOutstanding() {
+		return outstanding;
+	}
+
+	public int getFree() {
+		return freeCount;
+	}
+
+	public int getCapacity() {
+		return free.length;
+	}
+
+	public long getAcquires() {
+		return acquires;
+	}
+
+	public long getDropped() {
+		return dropped;
+	}
+}
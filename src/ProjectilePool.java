@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+//Holds every live projectile as parallel arrays rather than one object each.
+//Live projectiles are packed into slots 0 to size - 1 and the slots past size are the free list,
+//so spawning reuses the first free slot and removing moves the last projectile into the hole.
+//Direction is worked out once at spawn, so moving and reading positions needs no trig.
+//If given a PolarGrid, the pool keeps it up to date with every spawn, move and removal.
+public class ProjectilePool {
+
+	//Variables
+	private int size; //Number of live projectiles.
+	private int[] angle; //Direction of travel in degrees.
+	private double[] dirX; //Unit direction vector, x component.
+	private double[] dirY; //Unit direction vector, y component.
+	private double[] speed; //Distance moved per tick.
+	private double[] radius; //Distance from the center.
+	private double[] previousRadius; //Radius before the last move, used for interpolation.
+	private double[] x; //Cached position, updated on every move.
+	private double[] y;
+	private PolarGrid grid; //Spatial index of the slots, or null if not indexed.
+	private long spawns; //Projectiles ever spawned.
+	private long grows; //Spawns that found no free slot and had to grow the arrays.
+	private int highWater; //Most projectiles live at once.
+
+	public ProjectilePool(int capacity) {
+		this(capacity, null);
+	}
+
+	public ProjectilePool(int capacity, PolarGrid grid) {
+		this.grid = grid;
+		if(grid != null) grid.grow(capacity);
+		angle = new int[capacity];
+		dirX = new double[capacity];
+		dirY = new double[capacity];
+		speed = new double[capacity];
+		radius = new double[capacity];
+		previousRadius = new double[capacity];
+		x = new double[capacity];
+		y = new double[capacity];
+	}
+
+	//Adds a projectile at the center moving outwards. Returns its slot.
+	public int spawn(double s, int a) {
+		return spawn(s, a, 0);
+	}
+
+	//Adds a projectile already r away from the center. Returns its slot.
+	public int spawn(double s, int a, double r) {
+		spawns++;
+		if(size == angle.length) {
+			grow();
+			grows++;
+		}
+		int i = size++;
+		if(size > highWater) highWater = size;
+		angle[i] = a;
+		dirX[i] = FastMath.cosDegrees(a);
+		dirY[i] = FastMath.sinDegrees(a);
+		speed[i] = s;
+		radius[i] = r;
+		previousRadius[i] = r;
+		x[i] = dirX[i] * r;
+		y[i] = dirY[i] * r;
+		if(grid != null) grid.insert(i, a, r);
+		return i;
+	}
+
+	//Moves every projectile in one pass over the arrays.
+	public void move() {
+		for(int i = 0; i < size; i++) {
+			double r = radius[i];
+			previousRadius[i] = r;
+			r += speed[i];
+			radius[i] = r;
+			x[i] = dirX[i] * r;
+			y[i] = dirY[i] * r;
+		}
+		if(grid != null) {
+			for(int i = 0; i < size; i++) grid.setRadius(i, radius[i]);
+		}
+	}
+
+	//Frees a slot by moving the last projectile into it. Does not keep order.
+	public void remove(int i) {
+		int last = --size;
+		if(grid != null) {
+			grid.remove(i);
+			if(last != i) grid.relocate(last, i);
+		}
+		angle[i] = angle[last];
+		dirX[i] = dirX[last];
+		dirY[i] = dirY[last];
+		speed[i] = speed[last];
+		radius[i] = radius[last];
+		previousRadius[i] = previousRadius[last];
+		x[i] = x[last];
+		y[i] = y[last];
+	}
+
+	public void clear() {
+		size = 0;
+		if(grid != null) grid.clear();
+	}
+
+	//Doubles the capacity. Only happens while the pool is still finding its high-water mark.
+	private void grow() {
+		int capacity = Math.max(16, angle.length * 2);
+		angle = Arrays.copyOf(angle, capacity);
+		dirX = Arrays.copyOf(dirX, capacity);
+		dirY = Arrays.copyOf(dirY, capacity);
+		speed = Arrays.copyOf(speed, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		previousRadius = Arrays.copyOf(previousRadius, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		if(grid != null) grid.grow(capacity);
+	}
+
+	public PolarGrid getGrid() {
+		return grid;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	//Share of spawns that reused a free slot without growing, from 0 to 1. Same meaning as Pool.getHitRate().
+	public double getHitRate() {
+		return spawns == 0 ? 0 : (double) (spawns - grows) / spawns;
+	}
+
+	public int getHighWater() {
+		return highWater;
+	}
+
+	public int getCapacity() {
+		return angle.length;
+	}
+
+	public long getSpawns() {
+		return spawns;
+	}
+
+	public int getAngle(int i) {
+		return angle[i];
+	}
+
+	public double getSpeed(int i) {
+		return speed[i];
+	}
+
+	public double getRadius(int i) {
+		return radius[i];
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	//Position between the last two ticks. Interpolation of 0 is the previous tick, 1 is the current one.
+	public double getX(int i, double interpolation) {
+		return dirX[i] * (previousRadius[i] + (radius[i] - previousRadius[i]) * interpolation);
+	}
+
+	public double getY(int i, double interpolation) {
+		return dirY[i] * (previousRadius[i] + (radius[i] - previousRadius[i]) * interpolation);
+	}
+}
@@ -0,0 +1,218 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+//Records the inputs of one session so it can be simulated again exactly.
+//A session is fully determined by its seed and the tick each input arrived on, so that is all that's kept.
+//Usage: java Replay <file>  re-simulates a recorded run at full speed and checks it ends the same way.
+public class Replay {
+
+	//Constants
+	public static final int MAGIC = 0x4F524250; //"ORBP"
+	//Version 1 had no rocket count and always one rocket. Up to 2 the argument was a byte. Up to 3 there was no checksum.
+	public static final int VERSION = 4;
+	public static final int DIRECTION = 0; //Rocket changed direction. The argument is the rocket.
+	public static final int PAUSE = 1; //Game paused or unpaused. Doesn't change the simulation.
+
+	//Variables
+	private final long seed; //Seed the simulation was created with.
+	private final int rockets; //Rockets the simulation was created with.
+	private long[] events = new long[64]; //Each event is tick << 32 | type << 24 | argument, so any rocket index fits.
+	private int count;
+	private long finalTicks = -1; //Ticks the session lasted, or -1 if it hasn't finished.
+	private int finalScore;
+	private long finalChecksum; //Checksum of the rockets when the session finished.
+	private boolean checksummed; //Whether finalChecksum is known. Older files don't have one.
+
+	public Replay(long seed) {
+		this(seed, 1);
+	}
+
+	public Replay(long seed, int rockets) {
+		this.seed = seed;
+		this.rockets = rockets;
+	}
+
+	//Adds an input applied just before the given tick ran.
+	public void record(long tick, int type, int argument) {
+		if(count == events.length) events = Arrays.copyOf(events, count * 2);
+		events[count++] = tick << 32 | (long) (type & 0xFF) << 24 | (argument & 0xFFFFFF);
+	}
+
+	//Marks the session over and remembers how it ended, so playing it back can be checked.
+	public void finish(Simulation simulation) {
+		finalTicks = simulation.getTicks();
+		finalScore = simulation.getScore();
+		finalChecksum = checksum(simulation);
+		checksummed = true;
+	}
+
+	//Mixes the angle, direction and health of every rocket, in order. The score only counts spawns,
+	//so this is what shows whether the inputs were applied to the same rockets on the same ticks.
+	public static long checksum(Simulation simulation) {
+		long hash = 0xCBF29CE484222325L;
+		for(Rocket r : simulation.getRockets()) {
+			hash = (hash ^ Double.doubleToLongBits(r.getAngle())) * 0x100000001B3L;
+			hash = (hash ^ r.getDirection()) * 0x100000001B3L;
+			hash = (hash ^ r.getHealth()) * 0x100000001B3L;
+		}
+		return hash;
+	}
+
+	//Plays the inputs back against a fresh simulation as fast as possible.
+	public Simulation play() {
+		Simulation simulation = new Simulation(seed, true, Difficulty.DEFAULT, rockets);
+		long limit = finalTicks >= 0 ? finalTicks : Long.MAX_VALUE;
+		int next = 0;
+		while(!simulation.isOver() && simulation.getTicks() < limit) {
+			long tick = simulation.getTicks();
+			for(; next < count && getTick(next) == tick; next++) {
+				if(getType(next) == DIRECTION) simulation.changeDirection(getArgument(next));
+			}
+			simulation.tick();
+		}
+		return simulation;
+	}
+
+	//Whether playing back reproduced the recorded ending, including every rocket if the checksum was recorded.
+	public boolean matches(Simulation simulation) {
+		return simulation.getTicks() == finalTicks && simulation.getScore() == finalScore
+				&& (!checksummed || checksum(simulation) == finalChecksum);
+	}
+
+	//Tick deltas, type bytes and arguments, with varints so a long session stays small.
+	public void save(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(seed);
+			out.writeInt(rockets);
+			out.writeLong(finalTicks);
+			out.writeInt(finalScore);
+			out.writeLong(finalChecksum);
+			writeVarLong(out, count);
+			long previous = 0;
+			for(int i = 0; i < count; i++) {
+				writeVarLong(out, getTick(i) - previous);
+				previous = getTick(i);
+				out.writeByte(getType(i));
+				writeVarLong(out, getArgument(i));
+			}
+		}
+	}
+
+	public static Replay load(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if(in.readInt() != MAGIC) throw new IOException(file + " is not a replay");
+			int version = in.readUnsignedByte();
+			if(version < 1 || version > VERSION) throw new IOException(file + " has unknown version " + version);
+			long seed = in.readLong();
+			Replay replay = new Replay(seed, version >= 2 ? in.readInt() : 1);
+			replay.finalTicks = in.readLong();
+			replay.finalScore = in.readInt();
+			if(version >= 4) {
+				replay.finalChecksum = in.readLong();
+				replay.checksummed = true;
+			}
+			long count = readVarLong(in);
+			long tick = 0;
+			for(long i = 0; i < count; i++) {
+				tick += readVarLong(in);
+				int type = in.readUnsignedByte();
+				replay.record(tick, type, version >= 3 ? (int) readVarLong(in) : in.readUnsignedByte());
+			}
+			return replay;
+		}
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getRockets() {
+		return rockets;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public long getTick(int i) {
+		return events[i] >>> 32;
+	}
+
+	public int getType(int i) {
+		return (int) (events[i] >>> 24) & 0xFF;
+	}
+
+	public int getArgument(int i) {
+		return (int) events[i] & 0xFFFFFF;
+	}
+
+	public long getFinalTicks() {
+		return finalTicks;
+	}
+
+	public int getFinalScore() {
+		return finalScore;
+	}
+
+	public long getFinalChecksum() {
+		return finalChecksum;
+	}
+
+	public boolean isChecksummed() {
+		return checksummed;
+	}
+
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1) {
+			System.out.println("Usage: java Replay <file>");
+			return;
+		}
+		Replay replay = load(Paths.get(args[0]));
+		long start = System.nanoTime();
+		Simulation simulation = replay.play();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("seed:          " + replay.getSeed());
+		System.out.println("rockets:       " + replay.getRockets());
+		System.out.println("inputs:        " + replay.size());
+		System.out.println("ticks:         " + simulation.getTicks() + " (recorded " + replay.getFinalTicks() + ")");
+		System.out.println("score:         " + simulation.getScore() + " (recorded " + replay.getFinalScore() + ")");
+		if(replay.isChecksummed()) {
+			System.out.println("checksum:      " + Long.toHexString(checksum(simulation)) + " (recorded " + Long.toHexString(replay.getFinalChecksum()) + ")");
+		}
+		System.out.println("seconds:       " + String.format("%.3f", seconds));
+		System.out.println("ticks/sec:     " + String.format("%.0f", simulation.getTicks() / seconds));
+		if(replay.getFinalTicks() >= 0) {
+			boolean matches = replay.matches(simulation);
+			System.out.println(matches ? "replay matches" : "REPLAY DIVERGED");
+			if(!matches) System.exit(1);
+		}
+	}
+}
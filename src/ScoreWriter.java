@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+//Saves high scores on a background thread so the input handlers never wait on the disk.
+//Only the newest table matters, so saves that arrive while one is waiting replace it and
+//a burst of changes becomes a single write.
+public class ScoreWriter implements Runnable {
+
+	//Constants
+	public static final long COALESCEDELAY = 50; //Milliseconds to wait for more changes before writing.
+
+	//Variables
+	private final HighscoreStore store;
+	private final Thread thread;
+	private List<Highscore> pending; //Newest table waiting to be written, or null.
+	private int queued; //Saves folded into pending.
+	private boolean writing; //Whether a write is in progress.
+	private boolean running = true;
+	private long submitted; //Saves asked for.
+	private long writes; //Writes made.
+	private long failures; //Writes that threw.
+	private long lastWriteNanos; //How long the latest write took.
+	private long maxWriteNanos; //Longest write.
+	private long totalWriteNanos; //All writes added together.
+
+	public ScoreWriter(HighscoreStore store) {
+		this.store = store;
+		thread = new Thread(this, "Orbiter scores");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	//Queues the table to be saved. Copies it, so the caller can keep changing the original.
+	public synchronized void submit(List<Highscore> highscores) {
+		ArrayList<Highscore> copy = new ArrayList<Highscore>(highscores.size());
+		for(Highscore hs : highscores) copy.add(new Highscore(hs.name, hs.score));
+		pending = copy;
+		queued++;
+		submitted++;
+		notifyAll();
+	}
+
+	@Override
+	public void run() {
+		while(true) {
+			List<Highscore> batch;
+			synchronized(this) {
+				try {
+					while(pending == null && running) wait();
+
+					//Give a burst of saves a moment to arrive so they share one write.
+					//Each save wakes this thread, so wait out the rest of the window rather than starting it again.
+					long end = System.nanoTime() + COALESCEDELAY * 1000000L;
+					long left;
+					while(running && (left = end - System.nanoTime()) > 0) wait(left / 1000000L, (int) (left % 1000000L));
+				} catch (InterruptedException e) {
+					running = false;
+				}
+				if(pending == null) return;
+				batch = pending;
+				pending = null;
+				queued = 0;
+				writing = true;
+			}
+
+			long start = System.nanoTime();
+			boolean failed = false;
+			try {
+				store.save(batch);
+			} catch (IOException e) {
+				System.out.println("Could not save high scores: " + e.getMessage());
+				failed = true;
+			}
+			long time = System.nanoTime() - start;
+
+			synchronized(this) {
+				writing = false;
+				writes++;
+				if(failed) failures++;
+				lastWriteNanos = time;
+				maxWriteNanos = Math.max(maxWriteNanos, time);
+				totalWriteNanos += time;
+				notifyAll();
+			}
+		}
+	}
+
+	//Blocks until everything submitted so far is on disk.
+	public synchronized void flush() throws InterruptedException {
+		while((pending != null || writing) && thread.isAlive()) wait();
+	}
+
+	//Writes anything still queued and stops the thread.
+	public void close() throws InterruptedException {
+		synchronized(this) {
+			running = false;
+			notifyAll();
+		}
+		thread.join();
+	}
+
+	//Saves waiting to be written. Several waiting saves will still be a single write.
+	public synchronized int getQueueDepth() {
+		return queued;
+	}
+
+	public synchronized long getSubmitted() {
+		return submitted;
+	}
+
+	public synchronized long getWrites() {
+		return writes;
+	}
+
+	public synchronized long getFailures() {
+		return failures;
+	}
+
+	public synchronized long getLastWriteNanos() {
+		return lastWriteNanos;
+	}
+
+	public synchronized long getMaxWriteNanos() {
+		return maxWriteNanos;
+	}
+
+	public synchronized double getAverageWriteNanos() {
+		return writes == 0 ? 0 : (double) totalWriteNanos / writes;
+	}
+
+	public synchronized String report() {
+		return String.format("scores: %d saves in %d writes (%d failed), queue %d, write avg %.2f ms max %.2f ms",
+				submitted, writes, failures, queued, getAverageWriteNanos() / 1e6, maxWriteNanos / 1e6);
+	}
+}
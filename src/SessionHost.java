@@ -0,0 +1,391 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//Hosts many headless sessions side by side, each a world with bots stepped at the real tick rate like Game.start().
+//Sessions run either on a virtual thread each, where the JVM has them, or on a shared tick wheel: a few platform
+//threads that each own a share of the sessions and split every tick into slots, so the sessions due in one slot
+//are stepped together and the work is spread over the whole tick instead of landing at once.
+//New sessions are only admitted while there is room and the host is keeping up. Each session has a budget of
+//ticks it may run and of time each tick may take, and the host keeps totals over every session.
+//Usage: java SessionHost [-sessions N] [-seconds S] [-mode auto|wheel|virtual] [-threads N] [-maxticks T]
+//                        [-budget microseconds] [-rockets N] [-seed S] [-indexed] [-unpaced]
+//Sessions that end are replaced so the host stays full. -unpaced steps as fast as possible to measure throughput.
+public class SessionHost {
+
+	//Constants
+	public static final int SLOTS = 10; //Wheel slots per tick.
+	public static final double LAGSMOOTHING = 0.01; //Weight of each new lag sample in the running average.
+
+	//One hosted world.
+	public static class Session {
+		private final long id;
+		private final Simulation simulation;
+		private final Bot[] bots;
+		private final long maxTicks; //Ticks the session may run before it is ended.
+		private final long tickBudget; //Nanoseconds a tick may take before it counts as an overrun.
+		private long overruns; //Ticks that went over the budget.
+		private long next; //System.nanoTime() the next tick is due.
+
+		public Session(long id, Simulation simulation, long maxTicks, long tickBudget) {
+			this.id = id;
+			this.simulation = simulation;
+			this.maxTicks = maxTicks;
+			this.tickBudget = tickBudget;
+			bots = new Bot[simulation.getRockets().size()];
+			for(int i = 0; i < bots.length; i++) bots[i] = new Bot(i, 40, 12);
+		}
+
+		//Runs one tick and returns how long it took.
+		long step() {
+			long start = System.nanoTime();
+			for(Bot bot : bots) bot.act(simulation);
+			simulation.tick();
+			return System.nanoTime() - start;
+		}
+
+		//Whether the world is over or the session has used its ticks.
+		boolean isFinished() {
+			return simulation.isOver() || simulation.getTicks() >= maxTicks;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public Simulation getSimulation() {
+			return simulation;
+		}
+
+		public long getOverruns() {
+			return overruns;
+		}
+	}
+
+	//Variables
+	private final int maxSessions; //Most sessions hosted at once.
+	private final boolean paced; //Step at the tick rate, or as fast as possible.
+	private final boolean virtual; //A virtual thread per session instead of the wheel.
+	private final Wheel[] wheels; //Tick wheel threads, or empty when running on virtual threads.
+	private volatile boolean running;
+	private final AtomicInteger active = new AtomicInteger(); //Sessions admitted and not yet finished.
+	private final AtomicLong admitted = new AtomicLong();
+	private final AtomicLong rejectedFull = new AtomicLong(); //Turned away because maxSessions were running.
+	private final AtomicLong rejectedBehind = new AtomicLong(); //Turned away because the host was falling behind.
+	private final AtomicLong finished = new AtomicLong(); //Sessions that ended by themselves, not by the host stopping.
+	private final LongAdder ticks = new LongAdder(); //Ticks run by every session. An adder so the threads don't fight over it.
+	private final LongAdder overruns = new LongAdder(); //Ticks over their session's budget.
+	private final AtomicLong scores = new AtomicLong(); //Scores of finished sessions, added up.
+	private final PhaseRecorder tickTimes = new PhaseRecorder("session tick");
+	private final PhaseRecorder lag = new PhaseRecorder("lag"); //How late ticks started. Only recorded when paced.
+	private volatile double averageLag; //Running average of lag in nanoseconds, for admission. Updated racily.
+	private final ArrayList<Thread> threads = new ArrayList<Thread>(); //Wheel threads.
+	private int nextWheel; //Wheel the next session is given to.
+
+	public SessionHost(int maxSessions, String mode, int threadCount, boolean paced) {
+		this.maxSessions = maxSessions;
+		this.paced = paced;
+		boolean available = virtualThreads() != null;
+		if(mode.equals("virtual") && !available) throw new IllegalStateException("This JVM has no virtual threads");
+		virtual = mode.equals("virtual") || (mode.equals("auto") && available);
+		wheels = new Wheel[virtual ? 0 : threadCount];
+		for(int i = 0; i < wheels.length; i++) wheels[i] = new Wheel();
+	}
+
+	public void start() {
+		running = true;
+		for(int i = 0; i < wheels.length; i++) {
+			Thread thread = new Thread(wheels[i], "Orbiter wheel " + i);
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+	}
+
+	//Hosts the session if there is room and the host is keeping up. Returns false if it was turned away.
+	public boolean admit(Session session) {
+		if(!running) return false;
+		if(paced && averageLag > GameLoop.TICKLENGTH) {
+			rejectedBehind.incrementAndGet();
+			return false;
+		}
+		//Claim a place before starting, so concurrent callers can't go over the limit.
+		int count;
+		do {
+			count = active.get();
+			if(count >= maxSessions) {
+				rejectedFull.incrementAndGet();
+				return false;
+			}
+		} while(!active.compareAndSet(count, count + 1));
+		admitted.incrementAndGet();
+		session.next = System.nanoTime();
+
+		if(virtual) {
+			newVirtualThread(() -> runAlone(session)).start();
+		} else {
+			synchronized(this) {
+				wheels[nextWheel].incoming.add(session);
+				nextWheel = (nextWheel + 1) % wheels.length;
+			}
+		}
+		return true;
+	}
+
+	//Stops every session and waits until they have all let go.
+	public void stop() throws InterruptedException {
+		running = false;
+		for(Thread thread : threads) thread.join();
+
+		//Anything admitted as the wheels were stopping.
+		for(Wheel wheel : wheels) for(Session s = wheel.incoming.poll(); s != null; s = wheel.incoming.poll()) end(s);
+		while(active.get() > 0) Thread.sleep(1);
+	}
+
+	//One session on its own virtual thread. Parking unmounts it, so a waiting session costs no platform thread.
+	private void runAlone(Session session) {
+		while(running && !session.isFinished()) {
+			if(paced) {
+				waitUntil(session.next);
+				session.next = lateness(session.next, GameLoop.TICKLENGTH);
+			}
+			record(session, session.step());
+		}
+		end(session);
+	}
+
+	//A platform thread stepping a share of the sessions. Each tick is cut into SLOTS slots, and a session is
+	//stepped when its slot comes round, once per tick.
+	private class Wheel implements Runnable {
+		private final ConcurrentLinkedQueue<Session> incoming = new ConcurrentLinkedQueue<Session>(); //Admitted, not yet placed.
+		private final ArrayList<ArrayList<Session>> slots = new ArrayList<ArrayList<Session>>();
+
+		Wheel() {
+			for(int i = 0; i < SLOTS; i++) slots.add(new ArrayList<Session>());
+		}
+
+		@Override
+		public void run() {
+			long next = System.nanoTime();
+			int slot = 0;
+			while(running) {
+				//New sessions go in the emptiest slot.
+				for(Session s = incoming.poll(); s != null; s = incoming.poll()) {
+					int emptiest = 0;
+					for(int i = 1; i < SLOTS; i++) if(slots.get(i).size() < slots.get(emptiest).size()) emptiest = i;
+					slots.get(emptiest).add(s);
+				}
+
+				if(paced) {
+					waitUntil(next);
+					next = lateness(next, GameLoop.TICKLENGTH / SLOTS);
+				}
+
+				ArrayList<Session> due = slots.get(slot);
+				int i = 0;
+				while(i < due.size()) {
+					Session s = due.get(i);
+					record(s, s.step());
+					if(s.isFinished()) {
+						//Swap remove, then look at whatever moved into this place.
+						due.set(i, due.get(due.size() - 1));
+						due.remove(due.size() - 1);
+						end(s);
+					} else {
+						i++;
+					}
+				}
+				slot = (slot + 1) % SLOTS;
+			}
+
+			//Let go of everything still here.
+			for(ArrayList<Session> due : slots) for(Session s : due) end(s);
+			for(Session s = incoming.poll(); s != null; s = incoming.poll()) end(s);
+		}
+	}
+
+	//Records how late work due at next is starting and returns when the work a period later is due.
+	//Like GameLoop, a host that falls too far behind drops the backlog rather than spiralling.
+	private long lateness(long next, long period) {
+		long now = System.nanoTime();
+		long late = Math.max(0, now - next);
+		lag.record(late);
+		averageLag += (late - averageLag) * LAGSMOOTHING;
+		if(late > GameLoop.MAXCATCHUP * GameLoop.TICKLENGTH) return now + period;
+		return next + period;
+	}
+
+	private void record(Session session, long time) {
+		tickTimes.record(time);
+		ticks.increment();
+		if(time > session.tickBudget) {
+			session.overruns++;
+			overruns.increment();
+		}
+	}
+
+	//The session has left the host, either by finishing or because the host stopped.
+	private void end(Session session) {
+		if(session.isFinished()) {
+			scores.addAndGet(session.getSimulation().getScore());
+			finished.incrementAndGet();
+		}
+		active.decrementAndGet();
+	}
+
+	//Parks until the System.nanoTime() deadline.
+	private void waitUntil(long deadline) {
+		long remaining = deadline - System.nanoTime();
+		while(remaining > 0 && running) {
+			LockSupport.parkNanos(remaining);
+			remaining = deadline - System.nanoTime();
+		}
+	}
+
+	//Thread.ofVirtual() if this JVM has it, found by reflection so the game still builds for older ones. Otherwise null.
+	private static Object virtualThreads() {
+		try {
+			return Thread.class.getMethod("ofVirtual").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static Thread newVirtualThread(Runnable task) {
+		try {
+			Object builder = virtualThreads();
+			Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+			return (Thread) unstarted.invoke(builder, task);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not start a virtual thread", e);
+		}
+	}
+
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	public int getActive() {
+		return active.get();
+	}
+
+	public long getAdmitted() {
+		return admitted.get();
+	}
+
+	public long getRejectedFull() {
+		return rejectedFull.get();
+	}
+
+	public long getRejectedBehind() {
+		return rejectedBehind.get();
+	}
+
+	public long getFinished() {
+		return finished.get();
+	}
+
+	public long getTicks() {
+		return ticks.sum();
+	}
+
+	public long getOverruns() {
+		return overruns.sum();
+	}
+
+	public long getScores() {
+		return scores.get();
+	}
+
+	public PhaseRecorder getTickTimes() {
+		return tickTimes;
+	}
+
+	public PhaseRecorder getLag() {
+		return lag;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int sessions = 10000;
+		double seconds = 10;
+		String mode = "auto";
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		long maxTicks = Long.MAX_VALUE;
+		long budget = 1000;
+		int rockets = 1;
+		long seed = 1;
+		boolean indexed = false;
+		boolean paced = true;
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("-indexed")) indexed = true;
+			else if(args[i].equals("-unpaced")) paced = false;
+			else if(i + 1 < args.length) {
+				String value = args[++i];
+				if(args[i - 1].equals("-sessions")) sessions = Integer.parseInt(value);
+				else if(args[i - 1].equals("-seconds")) seconds = Double.parseDouble(value);
+				else if(args[i - 1].equals("-mode")) mode = value;
+				else if(args[i - 1].equals("-threads")) threadCount = Integer.parseInt(value);
+				else if(args[i - 1].equals("-maxticks")) maxTicks = Long.parseLong(value);
+				else if(args[i - 1].equals("-budget")) budget = Long.parseLong(value);
+				else if(args[i - 1].equals("-rockets")) rockets = Integer.parseInt(value);
+				else if(args[i - 1].equals("-seed")) seed = Long.parseLong(value);
+			}
+		}
+
+		SessionHost host = new SessionHost(sessions, mode, threadCount, paced);
+		host.start();
+		System.out.println("mode:          " + (host.isVirtual() ? "virtual threads" : "tick wheel on " + threadCount + " threads")
+				+ (paced ? ", " + GameLoop.TICKRATE + " ticks/sec each" : ", unpaced"));
+		System.out.println(String.format("%6s %8s %10s %10s %10s %10s %9s %9s", "second", "active", "ticks/sec", "tick p50", "tick p99", "lag p99", "finished", "rejected"));
+
+		long id = 0;
+		long start = System.nanoTime();
+		long end = start + (long) (seconds * 1e9);
+		long lastTicks = 0;
+		long lastReport = start;
+		PhaseRecorder.Interval tickInterval = new PhaseRecorder.Interval(host.getTickTimes());
+		PhaseRecorder.Interval lagInterval = new PhaseRecorder.Interval(host.getLag());
+		int second = 0;
+		while(System.nanoTime() < end) {
+			//Keep the host full, replacing sessions that finish.
+			while(host.getActive() < sessions) {
+				//Worlds skip the spatial index unless asked. It only pays off from many projectiles and costs memory in each.
+				Simulation simulation = new Simulation(seed + id, indexed, Difficulty.DEFAULT, rockets);
+				if(!host.admit(new Session(id, simulation, maxTicks, budget * 1000))) break;
+				id++;
+			}
+			Thread.sleep(100);
+
+			long now = System.nanoTime();
+			if(now - lastReport >= 1000000000L) {
+				long total = host.getTicks();
+				tickInterval.update();
+				lagInterval.update();
+				System.out.println(String.format("%6d %8d %10.0f %8.3fus %8.3fus %8.3fms %9d %9d", ++second, host.getActive(),
+						(total - lastTicks) / ((now - lastReport) / 1e9), tickInterval.percentile(50) / 1e3, tickInterval.percentile(99) / 1e3,
+						lagInterval.percentile(99) / 1e6, host.getFinished(), host.getRejectedFull() + host.getRejectedBehind()));
+				lastTicks = total;
+				lastReport = now;
+			}
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		host.stop();
+
+		long[] counts = new long[PhaseRecorder.BUCKETS];
+		host.getLag().copyCounts(counts);
+		System.out.println();
+		System.out.println("sessions:      " + host.getAdmitted() + " admitted, " + host.getFinished() + " finished");
+		System.out.println("rejected:      " + host.getRejectedFull() + " full, " + host.getRejectedBehind() + " falling behind");
+		System.out.println("ticks:         " + host.getTicks());
+		System.out.println("ticks/sec:     " + String.format("%.0f", host.getTicks() / elapsed));
+		if(paced) System.out.println("lag p50/p99:   " + String.format("%.3f / %.3f ms", PhaseRecorder.percentile(counts, 50) / 1e6, PhaseRecorder.percentile(counts, 99) / 1e6));
+		host.getTickTimes().copyCounts(counts);
+		System.out.println("tick p50/p99:  " + String.format("%.3f / %.3f us", PhaseRecorder.percentile(counts, 50) / 1e3, PhaseRecorder.percentile(counts, 99) / 1e3));
+		System.out.println("overruns:      " + host.getOverruns() + " ticks over " + budget + "us");
+		if(host.getFinished() > 0) System.out.println("mean score:    " + String.format("%.1f", (double) host.getScores() / host.getFinished()));
+	}
+}
@@ -0,0 +1,459 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+//The game world and its update logic. Has no AWT dependency so it can run headless and faster than real time.
+//Coordinates are relative to the center of the world.
+public class Simulation {
+
+	//Constants
+	public static final int RADIUS = 250;
+	public static final int ROCKETSIZE = 64;
+	public static final int BOUNDS = 600; //Projectiles further than this along either axis are removed.
+	public static final long SPAWNSPEED = 250000000L; //Default nanoseconds of sim time between projectile spawns.
+	public static final long SPAWNDELAY = 2000000000L; //Nanoseconds of sim time before the first spawn.
+	public static final int SECTORS = 72; //Angular buckets in the spatial index.
+	public static final int RINGWIDTH = 32; //Radial size of the buckets in the spatial index.
+	public static final int INDEXTHRESHOLD = 100; //Fewer live projectiles than this are cheaper to test by brute force.
+	public static final int ORBITS = 3; //Orbits rockets are spread over when there is more than one.
+	public static final int ORBITSPACING = 70; //Distance between orbits.
+	public static final int PARALLELTHRESHOLD = 256; //Rockets are updated in parallel chunks from this many.
+	public static final int CHUNK = 64; //Rockets per parallel chunk.
+	public static final int HEALTHPOOL = 64; //Taken health packs kept for reuse.
+
+	//Variables
+	private ArrayList<Rocket> rockets; //An arraylist to hold the rocket objects.
+	private int alive; //Rockets with health left.
+	private boolean[] flying; //Rockets that had health left when this tick's collision pass began. Only these collide.
+	private double[] hitboxLocalX; //Each rocket's four hitbox corners with the rocket at angle 0. Rotated by the rocket's angle to place them.
+	private double[] hitboxLocalY;
+	private double[] hitboxBuiltAngle; //Angle each rocket's corners in hitboxX/Y were built for, or NaN.
+	private final IntConsumer moveChunk = this::moveRockets; //Kept so parallel updates don't make a new lambda each tick.
+	private final IntConsumer hitboxChunk = this::createRocketHitboxes;
+	private ProjectilePool projectiles; //Positions and velocities of every live projectile.
+	private ArrayList<HealthPack> health; //Holds the locations for health packs.
+	private Pool<HealthPack> healthPool; //Taken health packs waiting to be placed again.
+	private double[] hitboxX; //Reused buffer holding the x of each rocket's four hitbox corners.
+	private double[] hitboxY; //Reused buffer holding the y of each rocket's four hitbox corners.
+	private PolarGrid healthGrid; //Spatial index of the health packs by list index, or null for brute force.
+	private int[] removals; //Reused buffer of projectile slots to remove this tick.
+	private final long seed; //Seed the session was created with. The same seed and inputs give the same run.
+	private SplittableRandom random; //Source of all randomness in the session.
+	private final Difficulty difficulty; //Spawn rate and projectile speed curve.
+	private Replay recorder; //Records inputs, or null.
+	private Instrumentation instrumentation; //Times each phase of the tick, or null.
+	private boolean invulnerable; //Rockets still collide but take no damage.
+	private long counter; //Sim time in nanoseconds since the last spawn. Used for timing projectile and health spawns.
+	private long ticks; //Number of ticks simulated.
+	private int score; //Keeps track of the score.
+
+	public Simulation(long seed) {
+		this(seed, true);
+	}
+
+	//Indexed sessions use polar grids for collision queries. Otherwise every rocket is tested against everything.
+	public Simulation(long seed, boolean indexed) {
+		this(seed, indexed, Difficulty.DEFAULT);
+	}
+
+	public Simulation(long seed, boolean indexed, Difficulty difficulty) {
+		this(seed, indexed, difficulty, 1);
+	}
+
+	//Several rockets are spread evenly around the orbits, alternating direction from one orbit to the next.
+	public Simulation(long seed, boolean indexed, Difficulty difficulty, int rocketCount) {
+		this(seed, indexed, difficulty, orbits(rocketCount));
+	}
+
+	//Starts with the given rockets, wherever they are.
+	public Simulation(long seed, boolean indexed, Difficulty difficulty, List<Rocket> startingRockets) {
+		int rocketCount = startingRockets.size();
+		this.seed = seed;
+		this.difficulty = difficulty;
+		random = new SplittableRandom(seed);
+
+		//Initialize the rockets.
+		rockets = new ArrayList<Rocket>();
+		hitboxLocalX = new double[4 * rocketCount];
+		hitboxLocalY = new double[4 * rocketCount];
+		hitboxBuiltAngle = new double[rocketCount];
+		for(Rocket r : startingRockets) addRocket(r);
+
+		health = new ArrayList<HealthPack>();
+		healthPool = new Pool<HealthPack>(HealthPack::new, HealthPack::reset, HEALTHPOOL);
+
+		//Initialize the pool for current projectiles.
+		int rings = (int) Math.ceil(BOUNDS * Math.sqrt(2) / RINGWIDTH) + 1;
+		projectiles = new ProjectilePool(64, indexed ? new PolarGrid(SECTORS, rings, RINGWIDTH, 64) : null);
+		if(indexed) healthGrid = new PolarGrid(SECTORS, rings, RINGWIDTH, 16);
+
+		counter = -SPAWNDELAY;
+		score = 0;
+
+		flying = new boolean[rocketCount];
+		hitboxX = new double[4 * rocketCount];
+		hitboxY = new double[4 * rocketCount];
+		removals = new int[16];
+	}
+
+	//Advances the world by one tick of GameLoop.TICKLENGTH.
+	public void tick() {
+		if(isOver()) return;
+		long start = instrumentation != null ? System.nanoTime() : 0;
+
+		//Move the rockets.
+		forEachChunk(moveChunk);
+
+		//Move the projectiles.
+		projectiles.move();
+		long moved = instrumentation != null ? System.nanoTime() : 0;
+
+		checkCollisions();
+		long collided = instrumentation != null ? System.nanoTime() : 0;
+
+		//Spawn a projectile every spawn period of sim time. Periods shorter than a tick spawn several at once.
+		counter += GameLoop.TICKLENGTH;
+		while (counter >= difficulty.getSpawnSpeed()) {
+			spawnProjectile();
+			counter -= difficulty.getSpawnSpeed();
+			score++;
+
+			//Spawn health
+			if(score % 50 == 0){
+				spawnHealth();
+			}
+		}
+		ticks++;
+		if(instrumentation != null) instrumentation.tick(start, moved, collided, System.nanoTime(), projectiles.size(), health.size(), score);
+	}
+
+	//The session is over once every rocket has lost all its health.
+	public boolean isOver() {
+		return alive == 0;
+	}
+
+	//The default layout for a number of rockets.
+	public static ArrayList<Rocket> orbits(int rocketCount) {
+		ArrayList<Rocket> layout = new ArrayList<Rocket>(rocketCount);
+		for(int i = 0; i < rocketCount; i++) {
+			int orbit = i % ORBITS;
+			layout.add(new Rocket(RADIUS - orbit * ORBITSPACING, i * 360 / rocketCount, 1, orbit % 2 == 0 ? 1 : -1));
+		}
+		return layout;
+	}
+
+	//Adds a rocket and works out its hitbox corners from where it would be at angle 0:
+	//15% of its size ahead of the orbit and 20% behind, half its size either side.
+	private void addRocket(Rocket r) {
+		int i = rockets.size();
+		rockets.add(r);
+		alive++;
+		if(hitboxLocalX.length < 4 * (i + 1)) {
+			hitboxLocalX = Arrays.copyOf(hitboxLocalX, 4 * (i + 1));
+			hitboxLocalY = Arrays.copyOf(hitboxLocalY, 4 * (i + 1));
+			hitboxBuiltAngle = Arrays.copyOf(hitboxBuiltAngle, i + 1);
+		}
+		int front = r.getRadius() + 15 * ROCKETSIZE / 100;
+		int back = r.getRadius() - 2 * ROCKETSIZE / 10;
+		int o = 4 * i;
+		hitboxLocalX[o] = front;
+		hitboxLocalY[o] = -ROCKETSIZE / 2;
+		hitboxLocalX[o + 1] = back;
+		hitboxLocalY[o + 1] = -ROCKETSIZE / 2;
+		hitboxLocalX[o + 2] = back;
+		hitboxLocalY[o + 2] = ROCKETSIZE / 2;
+		hitboxLocalX[o + 3] = front;
+		hitboxLocalY[o + 3] = ROCKETSIZE / 2;
+		hitboxBuiltAngle[i] = Double.NaN;
+	}
+
+	//Runs a chunked update over every rocket, in parallel once there are enough rockets to be worth it.
+	//Each chunk only touches its own rockets, so the result is the same either way.
+	private void forEachChunk(IntConsumer chunk) {
+		int chunks = (rockets.size() + CHUNK - 1) / CHUNK;
+		if(rockets.size() >= PARALLELTHRESHOLD) IntStream.range(0, chunks).parallel().forEach(chunk);
+		else for(int c = 0; c < chunks; c++) chunk.accept(c);
+	}
+
+	private void moveRockets(int chunk) {
+		int end = Math.min(rockets.size(), (chunk + 1) * CHUNK);
+		for(int i = chunk * CHUNK; i < end; i++) {
+			Rocket r = rockets.get(i);
+			if(r.getHealth() > 0) r.move();
+		}
+	}
+
+	private void createRocketHitboxes(int chunk) {
+		int end = Math.min(rockets.size(), (chunk + 1) * CHUNK);
+		for(int i = chunk * CHUNK; i < end; i++) {
+			Rocket r = rockets.get(i);
+			flying[i] = r.getHealth() > 0;
+
+			//Corners only move when the rocket turns, so keep last tick's if the angle is the same.
+			if(flying[i] && r.getAngle() != hitboxBuiltAngle[i]) {
+				createRocketHitbox(i, hitboxX, hitboxY, 4 * i);
+				hitboxBuiltAngle[i] = r.getAngle();
+			}
+		}
+	}
+
+	//Damages (or heals, if negative) a rocket and keeps count of how many are left.
+	private void damage(int rocket, int amount) {
+		Rocket r = rockets.get(rocket);
+		if(invulnerable) return;
+		boolean wasAlive = r.getHealth() > 0;
+		r.takeDamage(amount);
+		if(wasAlive && r.getHealth() <= 0) alive--;
+		else if(!wasAlive && r.getHealth() > 0) alive++;
+	}
+
+	public void changeDirection(int rocket) {
+		if(recorder != null) recorder.record(ticks, Replay.DIRECTION, rocket);
+		rockets.get(rocket).changeDirection();
+	}
+
+	//Check to see whether the the rocket has collided with a health object or projectile.
+	//Also removes projectiles that have gone off screen. Allocates nothing once the buffers are sized.
+	void checkCollisions() {
+		int rocketCount = rockets.size();
+		if(hitboxX.length < 4 * rocketCount) {
+			hitboxX = new double[4 * rocketCount];
+			hitboxY = new double[4 * rocketCount];
+			flying = new boolean[rocketCount];
+			Arrays.fill(hitboxBuiltAngle, Double.NaN);
+		}
+		forEachChunk(hitboxChunk); //Corners of the hitbox for every rocket.
+
+		if(projectiles.getGrid() != null && projectiles.size() >= INDEXTHRESHOLD) collideIndexed(rocketCount);
+		else collideAll(rocketCount);
+	}
+
+	//Tests every rocket against every projectile and health pack.
+	private void collideAll(int rocketCount) {
+		//Removed projectiles are replaced by the last one in the pool, so only step forward when nothing was removed.
+		int i = 0;
+		while(i < projectiles.size()) {
+			double x = projectiles.getX(i);
+			double y = projectiles.getY(i);
+
+			//If the projectile goes off screen.
+			boolean remove = x < -BOUNDS || x > BOUNDS || y < -BOUNDS || y > BOUNDS;
+
+			//rocket collides with projectile, take damage.
+			for(int j = 0; j < rocketCount; j++) {
+				if(flying[j] && quadContains(hitboxX, hitboxY, 4 * j, x, y)) {
+					damage(j, 25);
+					remove = true;
+				}
+			}
+
+			if(remove) projectiles.remove(i);
+			else i++;
+		}
+
+		//If rocket takes health, heal rocket.
+		i = 0;
+		while(i < health.size()) {
+			HealthPack h = health.get(i);
+			boolean taken = false;
+			for(int j = 0; j < rocketCount; j++) {
+				if(flying[j] && quadContains(hitboxX, hitboxY, 4 * j, h.x, h.y)) {
+					damage(j, -10); //Heal rocket.
+					taken = true;
+				}
+			}
+
+			if(taken) removeHealth(i);
+			else i++;
+		}
+	}
+
+	//Tests each rocket only against what shares a grid cell with its hitbox.
+	private void collideIndexed(int rocketCount) {
+		PolarGrid grid = projectiles.getGrid();
+		int count = 0;
+
+		//rocket collides with projectile, take damage.
+		for(int j = 0; j < rocketCount; j++) {
+			if(!flying[j]) continue;
+			int found = grid.queryQuad(hitboxX, hitboxY, 4 * j);
+			int[] ids = grid.getResults();
+			for(int k = 0; k < found; k++) {
+				int id = ids[k];
+				if(quadContains(hitboxX, hitboxY, 4 * j, projectiles.getX(id), projectiles.getY(id))) {
+					damage(j, 25);
+					count = addRemoval(count, id);
+				}
+			}
+		}
+
+		//Walking from the highest slot down means the projectile swapped into a hole has already been checked
+		//and kept, and the hits still to come keep their slots.
+		Arrays.sort(removals, 0, count);
+		int next = count - 1;
+		for(int i = projectiles.size() - 1; i >= 0; i--) {
+			double x = projectiles.getX(i);
+			double y = projectiles.getY(i);
+
+			//If the projectile goes off screen.
+			boolean remove = x < -BOUNDS || x > BOUNDS || y < -BOUNDS || y > BOUNDS;
+
+			//If a rocket hit it.
+			while(next >= 0 && removals[next] == i) {
+				remove = true;
+				next--;
+			}
+
+			if(remove) projectiles.remove(i);
+		}
+
+		//If rocket takes health, heal rocket.
+		for(int j = 0; j < rocketCount; j++) {
+			if(!flying[j]) continue;
+			int found = healthGrid.queryQuad(hitboxX, hitboxY, 4 * j);
+			int[] ids = healthGrid.getResults();
+			for(int k = 0; k < found; k++) {
+				HealthPack h = health.get(ids[k]);
+				if(quadContains(hitboxX, hitboxY, 4 * j, h.x, h.y)) {
+					damage(j, -10); //Heal rocket.
+					removeHealth(ids[k]);
+
+					//The query results point at slots that may have just moved, so look again.
+					found = healthGrid.queryQuad(hitboxX, hitboxY, 4 * j);
+					k = -1;
+				}
+			}
+		}
+	}
+
+	private int addRemoval(int count, int id) {
+		if(count == removals.length) removals = Arrays.copyOf(removals, count * 2);
+		removals[count] = id;
+		return count + 1;
+	}
+
+	//Removes a health pack from the list and the index.
+	private void removeHealth(int index) {
+		int last = health.size() - 1;
+		if(healthGrid != null) {
+			healthGrid.remove(index);
+			if(last != index) healthGrid.relocate(last, index);
+		}
+		healthPool.release(health.get(index));
+		swapRemove(health, index);
+	}
+
+	//Removes an element in constant time by moving the last element into its place. Does not keep order.
+	private static <T> void swapRemove(ArrayList<T> list, int index) {
+		int last = list.size() - 1;
+		list.set(index, list.get(last));
+		list.remove(last);
+	}
+
+	//Writes the four corners of the hitbox for a rocket into the buffers starting at offset.
+	//One sine and cosine rotate all four local corners. Corners are truncated to whole pixels like the old polygon was.
+	void createRocketHitbox(int rocket, double[] xpoints, double[] ypoints, int offset) {
+		double angle = rockets.get(rocket).getAngle();
+		double cos = FastMath.cosDegrees(angle);
+		double sin = FastMath.sinDegrees(angle);
+		int o = 4 * rocket;
+		for(int k = 0; k < 4; k++) {
+			double x = hitboxLocalX[o + k];
+			double y = hitboxLocalY[o + k];
+			xpoints[offset + k] = (int) (x * cos - y * sin);
+			ypoints[offset + k] = (int) (x * sin + y * cos);
+		}
+	}
+
+	//Fills the hitbox buffers for every rocket. Used by benchmarks.
+	void createRocketHitboxes() {
+		forEachChunk(hitboxChunk);
+	}
+
+	public int getAlive() {
+		return alive;
+	}
+
+	//Whether a point is inside the convex quad whose corners start at offset, given in order with either winding.
+	//The point is inside when it is on the same side of all four edges.
+	public static boolean quadContains(double[] xpoints, double[] ypoints, int offset, double x, double y) {
+		double x0 = xpoints[offset], y0 = ypoints[offset];
+		double x1 = xpoints[offset + 1], y1 = ypoints[offset + 1];
+		double x2 = xpoints[offset + 2], y2 = ypoints[offset + 2];
+		double x3 = xpoints[offset + 3], y3 = ypoints[offset + 3];
+		double c0 = (x1 - x0) * (y - y0) - (y1 - y0) * (x - x0);
+		double c1 = (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1);
+		double c2 = (x3 - x2) * (y - y2) - (y3 - y2) * (x - x2);
+		double c3 = (x0 - x3) * (y - y3) - (y0 - y3) * (x - x3);
+		return (c0 >= 0 && c1 >= 0 && c2 >= 0 && c3 >= 0) || (c0 <= 0 && c1 <= 0 && c2 <= 0 && c3 <= 0);
+	}
+
+	//Places a health object randomly on the rocket path.
+	private void spawnHealth() {
+		int angle = random.nextInt(360);
+		HealthPack h = healthPool.acquire();
+		h.x = (int) (RADIUS * FastMath.cosDegrees(angle));
+		h.y = (int) (RADIUS * FastMath.sinDegrees(angle));
+		if(healthGrid != null) healthGrid.insert(health.size(), Math.toDegrees(Math.atan2(h.y, h.x)), Math.hypot(h.x, h.y));
+		health.add(h);
+	}
+
+	//Spawns projectiles that move in a random direction.
+	void spawnProjectile() {
+		projectiles.spawn(difficulty.projectileSpeed(score, 2 * random.nextDouble() - 1), random.nextInt(360));
+	}
+
+	public ArrayList<Rocket> getRockets() {
+		return rockets;
+	}
+
+	public ProjectilePool getProjectiles() {
+		return projectiles;
+	}
+
+	public ArrayList<HealthPack> getHealth() {
+		return health;
+	}
+
+	public Pool<HealthPack> getHealthPool() {
+		return healthPool;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	//Inputs from now on are added to the replay.
+	public void setRecorder(Replay replay) {
+		recorder = replay;
+	}
+
+	public Replay getRecorder() {
+		return recorder;
+	}
+
+	//Keeps the rockets alive however often they are hit, so a stress test can keep going. Hits still remove projectiles.
+	public void setInvulnerable(boolean invulnerable) {
+		this.invulnerable = invulnerable;
+	}
+
+	//Ticks from now on are timed into this.
+	public void setInstrumentation(Instrumentation i) {
+		instrumentation = i;
+	}
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Everything the renderer needs to draw one tick, copied out of the game at the end of the tick so
+//the renderer never reads state the simulation is changing. Positions are kept for both the
+//previous and the current tick so the renderer can interpolate between them.
+//Arrays only grow, so once they are big enough capturing allocates nothing.
+public class Snapshot {
+
+	//Variables
+	public long sequence; //Increases with every published snapshot.
+	public GameState state;
+	public double alpha;
+	public boolean paused;
+	public int score;
+
+	public int rocketCount;
+	public int[] rocketRadius = new int[1];
+	public double[] rocketPreviousAngle = new double[1];
+	public double[] rocketAngle = new double[1];
+	public int[] rocketDirection = new int[1];
+	public int[] rocketHealth = new int[1];
+
+	public int projectileCount;
+	public double[] projectilePreviousX = new double[16];
+	public double[] projectilePreviousY = new double[16];
+	public double[] projectileX = new double[16];
+	public double[] projectileY = new double[16];
+
+	public int healthCount;
+	public int[] healthX = new int[4];
+	public int[] healthY = new int[4];
+
+	public int highscoreCount;
+	public String[] highscoreNames = new String[11];
+	public int[] highscoreScores = new int[11];
+	public boolean editing;
+	public String newName;
+
+	//Copies the positions of everything in the world.
+	public void capture(Simulation simulation) {
+		score = simulation.getScore();
+
+		ArrayList<Rocket> rockets = simulation.getRockets();
+		rocketCount = rockets.size();
+		if(rocketAngle.length < rocketCount) {
+			int capacity = Math.max(rocketCount, rocketAngle.length * 2);
+			rocketRadius = Arrays.copyOf(rocketRadius, capacity);
+			rocketPreviousAngle = Arrays.copyOf(rocketPreviousAngle, capacity);
+			rocketAngle = Arrays.copyOf(rocketAngle, capacity);
+			rocketDirection = Arrays.copyOf(rocketDirection, capacity);
+			rocketHealth = Arrays.copyOf(rocketHealth, capacity);
+		}
+		for(int i = 0; i < rocketCount; i++) {
+			Rocket r = rockets.get(i);
+			rocketRadius[i] = r.getRadius();
+			rocketPreviousAngle[i] = r.getPreviousAngle();
+			rocketAngle[i] = r.getAngle();
+			rocketDirection[i] = r.getDirection();
+			rocketHealth[i] = r.getHealth();
+		}
+
+		ProjectilePool projectiles = simulation.getProjectiles();
+		projectileCount = projectiles.size();
+		if(projectileX.length < projectileCount) {
+			int capacity = Math.max(projectileCount, projectileX.length * 2);
+			projectilePreviousX = Arrays.copyOf(projectilePreviousX, capacity);
+			projectilePreviousY = Arrays.copyOf(projectilePreviousY, capacity);
+			projectileX = Arrays.copyOf(projectileX, capacity);
+			projectileY = Arrays.copyOf(projectileY, capacity);
+		}
+		for(int i = 0; i < projectileCount; i++) {
+			projectilePreviousX[i] = projectiles.getX(i, 0);
+			projectilePreviousY[i] = projectiles.getY(i, 0);
+			projectileX[i] = projectiles.getX(i);
+			projectileY[i] = projectiles.getY(i);
+		}
+
+		ArrayList<HealthPack> health = simulation.getHealth();
+		healthCount = health.size();
+		if(healthX.length < healthCount) {
+			int capacity = Math.max(healthCount, healthX.length * 2);
+			healthX = Arrays.copyOf(healthX, capacity);
+			healthY = Arrays.copyOf(healthY, capacity);
+		}
+		for(int i = 0; i < healthCount; i++) {
+			healthX[i] = health.get(i).x;
+			healthY[i] = health.get(i).y;
+		}
+	}
+
+	//Copies the best count high scores, lowest score first.
+	public void captureHighscores(Leaderboard highscores, int count) {
+		highscoreCount = Math.min(count, highscores.size());
+		if(highscoreNames.length < highscoreCount) {
+			highscoreNames = Arrays.copyOf(highscoreNames, highscoreCount);
+			highscoreScores = Arrays.copyOf(highscoreScores, highscoreCount);
+		}
+		int i = highscoreCount;
+		for(Highscore hs : highscores) {
+			if(--i < 0) break;
+			highscoreNames[i] = hs.name;
+			highscoreScores[i] = hs.score;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+//Hands snapshots from the simulation thread to the render thread without locks, using three
+//pre-allocated snapshots. The writer fills its back snapshot and swaps it into the middle slot;
+//the reader swaps its front snapshot for the middle one whenever a newer one is there.
+//Neither side ever waits for the other, and each only touches the snapshot it holds.
+public class SnapshotExchange {
+
+	//Variables
+	private final AtomicReference<Snapshot> ready; //Latest complete snapshot, or the reader's last one.
+	private Snapshot back; //Being filled by the writer. Only touched by the writer.
+	private Snapshot front; //Being drawn by the reader. Only touched by the reader.
+	private long sequence; //Sequence of the last published snapshot. Only touched by the writer.
+
+	public SnapshotExchange() {
+		ready = new AtomicReference<Snapshot>(new Snapshot());
+		back = new Snapshot();
+		front = new Snapshot();
+	}
+
+	//The snapshot to fill for the next publish. Writer thread only.
+	public Snapshot getBack() {
+		return back;
+	}
+
+	//Makes the back snapshot the latest one. Writer thread only.
+	public void publish() {
+		back.sequence = ++sequence;
+		back = ready.getAndSet(back);
+	}
+
+	//The newest complete snapshot. Reader thread only. Stays valid until the next call.
+	public Snapshot latest() {
+		if(ready.get().sequence > front.sequence) front = ready.getAndSet(front);
+		return front;
+	}
+}
@@ -0,0 +1,234 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+//Load test. Ramps the projectile spawn rate step by step until the engine can no longer keep up,
+//and at each step records how fast it ticks, how long frames take to draw, the heap and the GC pauses.
+//Every step is a fresh seeded world with invulnerable rockets, warmed up until the projectile count has settled.
+//Usage: java Stress [-from N] [-to N] [-factor F] [-rockets N] [-seed S] [-warmup T] [-ticks T] [-seconds S]
+//                   [-noframes] [-o report.csv]
+//Rates are projectiles spawned per tick. A projectile lives for about 300 ticks, so the live count is roughly
+//300 times the rate: the defaults go from a few hundred to over 10^5. Also run by java Orbiter -stress
+//and java Headless -stress with the same options.
+public class Stress {
+
+	//Constants
+	public static final double FRAMEBUDGET = 1000.0 / GameLoop.FRAMERATE; //Milliseconds a frame may take at the default frame rate.
+	public static final int FRAMEEVERY = 2; //Ticks between rendered frames, about the real ratio of ticks to frames.
+
+	//One row of the report.
+	private static class Step {
+		double rate; //Projectiles spawned per tick.
+		int projectiles; //Live projectiles at the end of the step.
+		int health; //Health packs at the end of the step.
+		long ticks; //Ticks measured.
+		double ticksPerSecond;
+		long tickP50, tickP99, tickMax; //Nanoseconds.
+		long frames; //Frames rendered.
+		long frameP50, frameP99, frameMax; //Nanoseconds.
+		long heapUsed; //Bytes, largest seen during the step.
+		long heapCommitted; //Bytes, at the end of the step.
+		long gcCount; //Collections during the step.
+		long gcTime; //Milliseconds collecting during the step.
+		long gcMaxPause; //Longest single collection in milliseconds, or -1 if the JVM doesn't say.
+		int projectileHighWater; //Most projectiles live at once over the whole step.
+		double projectileHitRate; //Share of spawns that reused a slot.
+		int healthHighWater; //Most health packs out at once.
+		double healthHitRate; //Share of health packs that were reused.
+	}
+
+	public static void main(String[] args) throws IOException {
+		double from = 1;
+		double to = 512;
+		double factor = 2;
+		int rockets = 1;
+		long seed = 1;
+		int warmup = 600;
+		int ticks = 500;
+		double seconds = 10;
+		boolean frames = true;
+		String output = "stress.csv";
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("-noframes")) frames = false;
+			else if(i + 1 < args.length) {
+				String value = args[++i];
+				if(args[i - 1].equals("-from")) from = Double.parseDouble(value);
+				else if(args[i - 1].equals("-to")) to = Double.parseDouble(value);
+				else if(args[i - 1].equals("-factor")) factor = Double.parseDouble(value);
+				else if(args[i - 1].equals("-rockets")) rockets = Integer.parseInt(value);
+				else if(args[i - 1].equals("-seed")) seed = Long.parseLong(value);
+				else if(args[i - 1].equals("-warmup")) warmup = Integer.parseInt(value);
+				else if(args[i - 1].equals("-ticks")) ticks = Integer.parseInt(value);
+				else if(args[i - 1].equals("-seconds")) seconds = Double.parseDouble(value);
+				else if(args[i - 1].equals("-o")) output = value;
+			}
+		}
+		if(factor <= 1) throw new IllegalArgumentException("-factor must be more than 1");
+
+		//Frames are drawn off screen by the real renderer, so this works without a display too.
+		Game game = null;
+		Graphics2D g = null;
+		if(frames) {
+			System.setProperty("java.awt.headless", "true");
+			game = new Game(seed);
+			g = new BufferedImage(Orbiter.WINDOWSIZE, Orbiter.WINDOWSIZE, BufferedImage.TYPE_INT_RGB).createGraphics();
+		}
+
+		AtomicLong maxPause = new AtomicLong(-1);
+		AtomicLong stepStart = new AtomicLong(); //JVM uptime in milliseconds when the current step's measuring began.
+		boolean pauses = listenForPauses(maxPause, stepStart);
+
+		System.out.println(String.format("%9s %11s %7s %10s %9s %9s %9s %9s %9s %8s %8s %5s %7s %7s",
+				"rate", "projectiles", "health", "ticks/sec", "tick p50", "tick p99", "tick max",
+				"frame p50", "frame p99", "heap MB", "commit", "gcs", "gc ms", "max gc"));
+		List<Step> steps = new ArrayList<Step>();
+		for(double rate = from; rate <= to * 1.000001; rate *= factor) {
+			Simulation simulation = new Simulation(seed, true, new Difficulty(Difficulty.DEFAULT.getBaseSpeed(),
+					Difficulty.DEFAULT.getSpeedSpread(), Difficulty.DEFAULT.getRampScore(),
+					Math.max(1, (long) (GameLoop.TICKLENGTH / rate))), rockets);
+			simulation.setInvulnerable(true);
+			if(game != null) game.play(simulation);
+			Bot[] bots = new Bot[rockets];
+			for(int i = 0; i < rockets; i++) bots[i] = new Bot(i, 40, 12);
+
+			//Let the first spawns reach the edge so the live count is steady before measuring.
+			for(int i = 0; i < warmup; i++) {
+				for(Bot bot : bots) bot.act(simulation);
+				simulation.tick();
+			}
+
+			Step step = new Step();
+			step.rate = rate;
+			PhaseRecorder tickTimes = new PhaseRecorder("tick");
+			PhaseRecorder frameTimes = new PhaseRecorder("frame");
+			long[] gcStart = gcTotals();
+			stepStart.set(ManagementFactory.getRuntimeMXBean().getUptime());
+			maxPause.set(pauses ? 0 : -1);
+			Runtime runtime = Runtime.getRuntime();
+			long tickNanos = 0;
+			long deadline = System.nanoTime() + (long) (seconds * 1e9);
+			while(step.ticks < ticks && System.nanoTime() < deadline) {
+				long start = System.nanoTime();
+				for(Bot bot : bots) bot.act(simulation);
+				simulation.tick();
+				long time = System.nanoTime() - start;
+				tickTimes.record(time);
+				tickNanos += time;
+				step.ticks++;
+
+				if(game != null && step.ticks % FRAMEEVERY == 0) {
+					game.publish();
+					start = System.nanoTime();
+					game.draw(g);
+					frameTimes.record(System.nanoTime() - start);
+					step.frames++;
+				}
+				step.heapUsed = Math.max(step.heapUsed, runtime.totalMemory() - runtime.freeMemory());
+			}
+			long[] gcEnd = gcTotals();
+
+			step.projectiles = simulation.getProjectiles().size();
+			step.health = simulation.getHealth().size();
+			step.ticksPerSecond = step.ticks / (tickNanos / 1e9); //Time spent ticking only, not drawing.
+			step.tickP50 = percentile(tickTimes, 50);
+			step.tickP99 = percentile(tickTimes, 99);
+			step.tickMax = tickTimes.getMax();
+			step.frameP50 = percentile(frameTimes, 50);
+			step.frameP99 = percentile(frameTimes, 99);
+			step.frameMax = frameTimes.getMax();
+			step.heapCommitted = runtime.totalMemory();
+			step.gcCount = gcEnd[0] - gcStart[0];
+			step.gcTime = gcEnd[1] - gcStart[1];
+			step.gcMaxPause = maxPause.get();
+			step.projectileHighWater = simulation.getProjectiles().getHighWater();
+			step.projectileHitRate = simulation.getProjectiles().getHitRate();
+			step.healthHighWater = simulation.getHealthPool().getHighWater();
+			step.healthHitRate = simulation.getHealthPool().getHitRate();
+			steps.add(step);
+
+			System.out.println(String.format("%9.2f %11d %7d %10.0f %7.3fms %7.3fms %7.3fms %7.3fms %7.3fms %8.1f %8.1f %5d %7d %7s",
+					step.rate, step.projectiles, step.health, step.ticksPerSecond,
+					step.tickP50 / 1e6, step.tickP99 / 1e6, step.tickMax / 1e6,
+					step.frameP50 / 1e6, step.frameP99 / 1e6,
+					step.heapUsed / 1048576.0, step.heapCommitted / 1048576.0,
+					step.gcCount, step.gcTime, step.gcMaxPause < 0 ? "?" : step.gcMaxPause + "ms"));
+		}
+
+		//Where the engine stops keeping up: ticks slower than real time, or frames over their budget.
+		System.out.println();
+		System.out.println("ticks fall behind:  " + breakingPoint(steps, false));
+		if(frames) System.out.println("frames over " + String.format("%.1fms", FRAMEBUDGET) + ": " + breakingPoint(steps, true));
+
+		try (Writer writer = new FileWriter(output)) {
+			writer.write("rate,projectiles,health,ticks,tickspersec,tickp50ms,tickp99ms,tickmaxms,frames,framep50ms,framep99ms,framemaxms,heapusedmb,heapcommittedmb,gccount,gcms,gcmaxpausems,projectilehighwater,projectilehitrate,healthhighwater,healthhitrate\n");
+			for(Step s : steps) {
+				writer.write(String.format(java.util.Locale.ROOT, "%.4f,%d,%d,%d,%.1f,%.4f,%.4f,%.4f,%d,%.4f,%.4f,%.4f,%.1f,%.1f,%d,%d,%d,%d,%.4f,%d,%.4f%n",
+						s.rate, s.projectiles, s.health, s.ticks, s.ticksPerSecond,
+						s.tickP50 / 1e6, s.tickP99 / 1e6, s.tickMax / 1e6,
+						s.frames, s.frameP50 / 1e6, s.frameP99 / 1e6, s.frameMax / 1e6,
+						s.heapUsed / 1048576.0, s.heapCommitted / 1048576.0, s.gcCount, s.gcTime, s.gcMaxPause,
+						s.projectileHighWater, s.projectileHitRate, s.healthHighWater, s.healthHitRate));
+			}
+		}
+		System.out.println("Report written to " + output);
+	}
+
+	//First step's projectile count where the p99 tick no longer fits in a tick, or the p99 frame in a frame.
+	private static String breakingPoint(List<Step> steps, boolean frames) {
+		for(Step s : steps) {
+			double p99 = (frames ? s.frameP99 : s.tickP99) / 1e6;
+			double budget = frames ? FRAMEBUDGET : GameLoop.TICKLENGTH / 1e6;
+			if(p99 > budget) return s.projectiles + " projectiles (p99 " + String.format("%.3fms", p99) + ")";
+		}
+		return "never, up to " + (steps.isEmpty() ? 0 : steps.get(steps.size() - 1).projectiles) + " projectiles";
+	}
+
+	private static long percentile(PhaseRecorder recorder, double percent) {
+		long[] counts = new long[PhaseRecorder.BUCKETS];
+		recorder.copyCounts(counts);
+		return Math.min(recorder.getMax(), PhaseRecorder.percentile(counts, percent)); //Buckets are only known to about 6%.
+	}
+
+	//Collections so far and milliseconds spent in them, over every collector.
+	private static long[] gcTotals() {
+		long[] totals = new long[2];
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, gc.getCollectionCount());
+			totals[1] += Math.max(0, gc.getCollectionTime());
+		}
+		return totals;
+	}
+
+	//Keeps the longest single collection that started after since in max. HotSpot says how long each one took
+	//in a notification. They arrive late, so ones from an earlier step are told apart by their start time.
+	//Returns false if no collector sends them, in which case only the totals are known.
+	private static boolean listenForPauses(AtomicLong max, AtomicLong since) {
+		NotificationListener listener = (Notification n, Object handback) -> {
+			if(!n.getType().equals("com.sun.management.gc.notification")) return;
+			CompositeData info = (CompositeData) ((CompositeData) n.getUserData()).get("gcInfo");
+			if((Long) info.get("startTime") < since.get()) return;
+			long duration = (Long) info.get("duration");
+			long m = max.get();
+			while(duration > m && !max.compareAndSet(m, duration)) m = max.get();
+		};
+		boolean listening = false;
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if(gc instanceof NotificationEmitter) {
+				((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+				listening = true;
+			}
+		}
+		return listening;
+	}
+}
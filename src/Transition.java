@@ -0,0 +1,54 @@
+//A fade through black from one state to another. The old state fades out, the new one takes over
+//once the screen is fully covered, and then it fades in. An action can run at the moment it takes over.
+public class Transition {
+
+	//Constants
+	public static final double OPAQUE = 254; //Alpha at which the screen is covered.
+
+	//Variables
+	private final GameState target; //State that takes over at the switch.
+	private final Runnable action; //Run at the switch, or null.
+	private double alpha; //How much of the screen is covered, from 0 to OPAQUE.
+	private boolean arrived; //Whether the target has taken over and this is fading in.
+
+	//Fades out of whatever is showing and into target.
+	public Transition(GameState target, Runnable action) {
+		this.target = target;
+		this.action = action;
+	}
+
+	//Just the fade in, for a state that is already showing.
+	public static Transition fadeIn(GameState state) {
+		Transition t = new Transition(state, null);
+		t.alpha = OPAQUE;
+		t.arrived = true;
+		return t;
+	}
+
+	//Moves the fade on by one tick. Returns true on the tick the target should take over.
+	public boolean tick(double fade) {
+		if(arrived) {
+			alpha = Math.max(0, alpha - fade);
+			return false;
+		}
+		alpha += fade;
+		if(alpha < OPAQUE) return false;
+		alpha = OPAQUE;
+		arrived = true;
+		if(action != null) action.run();
+		return true;
+	}
+
+	//Whether the fade in has finished and the transition can be dropped.
+	public boolean isDone() {
+		return arrived && alpha == 0;
+	}
+
+	public GameState getTarget() {
+		return target;
+	}
+
+	public double getAlpha() {
+		return alpha;
+	}
+}
@@ -0,0 +1,134 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+//Sweeps the difficulty curve by letting bots play many headless sessions at every combination of settings.
+//Every session is its own world on its own task, so the sweep scales with the cores it is given.
+//Each combination uses the same seeds, so differences between rows come from the settings and not the luck.
+//Usage: java Tuner [-sessions N] [-seed S] [-maxticks T] [-threads P] [-o results.csv]
+//                  [-base 2.5,...] [-spread 2.5,...] [-ramp 200,...] [-spawn 250,...]
+//-spawn is in milliseconds of sim time. -maxticks caps how long a session may survive.
+public class Tuner {
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		int sessions = 1000;
+		long seed = 1;
+		long maxTicks = 30000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String output = null;
+		double[] bases = {Difficulty.DEFAULT.getBaseSpeed()};
+		double[] spreads = {Difficulty.DEFAULT.getSpeedSpread()};
+		double[] ramps = {Difficulty.DEFAULT.getRampScore()};
+		double[] spawns = {Difficulty.DEFAULT.getSpawnSpeed() / 1e6};
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if(args[i].equals("-sessions")) sessions = Integer.parseInt(value);
+			else if(args[i].equals("-seed")) seed = Long.parseLong(value);
+			else if(args[i].equals("-maxticks")) maxTicks = Long.parseLong(value);
+			else if(args[i].equals("-threads")) threads = Integer.parseInt(value);
+			else if(args[i].equals("-o")) output = value;
+			else if(args[i].equals("-base")) bases = list(value);
+			else if(args[i].equals("-spread")) spreads = list(value);
+			else if(args[i].equals("-ramp")) ramps = list(value);
+			else if(args[i].equals("-spawn")) spawns = list(value);
+		}
+
+		//Every combination of the given values.
+		ArrayList<Difficulty> points = new ArrayList<Difficulty>();
+		for(double base : bases)
+			for(double spread : spreads)
+				for(double ramp : ramps)
+					for(double spawn : spawns)
+						points.add(new Difficulty(base, spread, ramp, (long) (spawn * 1e6)));
+
+		//One slot per session, written by whichever worker runs it.
+		int[][] scores = new int[points.size()][sessions];
+		int[][] ticks = new int[points.size()][sessions];
+		final int perPoint = sessions;
+		final long baseSeed = seed;
+		final long cap = maxTicks;
+		long total = (long) points.size() * sessions;
+		if(total > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many sessions");
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.nanoTime();
+		pool.submit(() -> IntStream.range(0, (int) total).parallel().forEach(k -> {
+			int point = k / perPoint;
+			int session = k % perPoint;
+			Simulation simulation = Headless.play(new Simulation(baseSeed + session, true, points.get(point)), cap);
+			scores[point][session] = simulation.getScore();
+			ticks[point][session] = (int) simulation.getTicks();
+		})).get();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		long totalTicks = 0;
+		for(int[] t : ticks) for(int tick : t) totalTicks += tick;
+
+		StringBuilder csv = new StringBuilder("base,spread,ramp,spawnms,sessions,meanscore,p10score,p50score,p90score,p99score,meansurvival,p10survival,p50survival,p90survival,capped\n");
+		System.out.println(String.format("%-40s %9s %7s %7s %7s %7s %9s %8s %8s %8s %7s", "difficulty", "mean", "p10", "p50", "p90", "p99", "survival", "p10", "p50", "p90", "capped"));
+		for(int p = 0; p < points.size(); p++) {
+			Difficulty d = points.get(p);
+			int[] s = scores[p];
+			int[] t = ticks[p];
+			Arrays.sort(s);
+			Arrays.sort(t);
+			int capped = 0;
+			for(int tick : t) if(tick >= maxTicks) capped++;
+			double meanScore = mean(s);
+			double meanSurvival = mean(t) / GameLoop.TICKRATE;
+			System.out.println(String.format("%-40s %9.1f %7d %7d %7d %7d %8.1fs %7.1fs %7.1fs %7.1fs %6.1f%%",
+					d, meanScore, percentile(s, 10), percentile(s, 50), percentile(s, 90), percentile(s, 99),
+					meanSurvival, seconds(t, 10), seconds(t, 50), seconds(t, 90), 100.0 * capped / sessions));
+			csv.append(String.format(java.util.Locale.ROOT, "%s,%s,%s,%s,%d,%.3f,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%d%n",
+					d.getBaseSpeed(), d.getSpeedSpread(), d.getRampScore(), d.getSpawnSpeed() / 1e6, sessions,
+					meanScore, percentile(s, 10), percentile(s, 50), percentile(s, 90), percentile(s, 99),
+					meanSurvival, seconds(t, 10), seconds(t, 50), seconds(t, 90), capped));
+		}
+
+		System.out.println();
+		System.out.println("sessions:      " + total + " over " + points.size() + " settings");
+		System.out.println("threads:       " + threads);
+		System.out.println("seconds:       " + String.format("%.3f", seconds));
+		System.out.println("sessions/sec:  " + String.format("%.0f", total / seconds));
+		System.out.println("ticks/sec:     " + String.format("%.0f", totalTicks / seconds));
+
+		if(output != null) {
+			try (Writer writer = new FileWriter(output)) {
+				writer.write(csv.toString());
+			}
+			System.out.println("Results written to " + output);
+		}
+	}
+
+	//Parses a comma separated list of numbers.
+	private static double[] list(String value) {
+		String[] parts = value.split(",");
+		double[] values = new double[parts.length];
+		for(int i = 0; i < parts.length; i++) values[i] = Double.parseDouble(parts[i].trim());
+		return values;
+	}
+
+	private static double mean(int[] values) {
+		long total = 0;
+		for(int v : values) total += v;
+		return values.length == 0 ? 0 : (double) total / values.length;
+	}
+
+	//Nearest rank percentile of a sorted array.
+	private static int percentile(int[] sorted, double percent) {
+		if(sorted.length == 0) return 0;
+		int rank = (int) Math.ceil(percent / 100 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+
+	//Percentile of a sorted array of ticks, in seconds.
+	private static double seconds(int[] sortedTicks, double percent) {
+		return (double) percentile(sortedTicks, percent) / GameLoop.TICKRATE;
+	}
+}